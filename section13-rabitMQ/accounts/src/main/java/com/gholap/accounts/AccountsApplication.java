@@ -1,6 +1,8 @@
 package com.gholap.accounts;
 
+import com.gholap.accounts.config.CustomerDetailsProperties;
 import com.gholap.accounts.dto.AccountsContactInfoDto;
+import com.gholap.accounts.loadbalancer.PeakEwmaLoadBalancerConfiguration;
 import io.swagger.v3.oas.annotations.ExternalDocumentation;
 import io.swagger.v3.oas.annotations.OpenAPIDefinition;
 import io.swagger.v3.oas.annotations.info.Contact;
@@ -9,13 +11,19 @@ import io.swagger.v3.oas.annotations.info.License;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
 import org.springframework.cloud.openfeign.EnableFeignClients;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableFeignClients
+@LoadBalancerClients(defaultConfiguration = PeakEwmaLoadBalancerConfiguration.class)
 @EnableJpaAuditing(auditorAwareRef = "auditAwareImpl")
-@EnableConfigurationProperties(value = {AccountsContactInfoDto.class})
+@EnableScheduling
+@EnableCaching
+@EnableConfigurationProperties(value = {AccountsContactInfoDto.class, CustomerDetailsProperties.class})
 @OpenAPIDefinition(
 		info = @Info(
 				title = "Account Microservice REST API Documentation",
@@ -0,0 +1,100 @@
+package com.gholap.accounts.allocator;
+
+import com.gholap.accounts.entity.AccountNumberBlock;
+import com.gholap.accounts.repository.AccountNumberBlockRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hi/lo allocator for account numbers. Each replica reserves a block of {@code blockSize}
+ * numbers by bumping a single row in account_number_block under a row lock, then hands the
+ * block out from memory with a plain atomic increment. Blocks never overlap, so numbers are
+ * unique across replicas without a lookup before insert; numbers of a block that is not fully
+ * used before shutdown are simply skipped.
+ */
+@Component
+public class AccountNumberAllocator {
+
+    private static final Logger log = LoggerFactory.getLogger(AccountNumberAllocator.class);
+    private static final String BLOCK_NAME = "accounts";
+    private static final long MAX_ACCOUNT_NUMBER = 9_999_999_999L;
+
+    private final AccountNumberBlockRepository accountNumberBlockRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final long blockSize;
+    private final long initialValue;
+
+    private volatile Block current = new Block(0, 0);
+
+    public AccountNumberAllocator(AccountNumberBlockRepository accountNumberBlockRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${account-number.block-size:100}") long blockSize,
+                                  @Value("${account-number.initial-value:2000000000}") long initialValue) {
+        this.accountNumberBlockRepository = accountNumberBlockRepository;
+        // the reservation must commit on its own, independent of the account creation transaction
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.blockSize = blockSize;
+        this.initialValue = initialValue;
+    }
+
+    public long nextAccountNumber() {
+        while (true) {
+            Block block = current;
+            long accountNumber = block.next.getAndIncrement();
+            if (accountNumber < block.end) {
+                return accountNumber;
+            }
+            refill(block);
+        }
+    }
+
+    private synchronized void refill(Block exhausted) {
+        if (current == exhausted) {
+            current = reserveBlock();
+        }
+    }
+
+    private Block reserveBlock() {
+        long start;
+        try {
+            start = transactionTemplate.execute(status -> reserve());
+        } catch (DataIntegrityViolationException ex) {
+            // another replica created the block row first, the row lock serialises us from here on
+            start = transactionTemplate.execute(status -> reserve());
+        }
+        long end = start + blockSize;
+        if (end - 1 > MAX_ACCOUNT_NUMBER) {
+            throw new IllegalStateException("Account number range exhausted");
+        }
+        log.debug("Reserved account numbers [{}, {})", start, end);
+        return new Block(start, end);
+    }
+
+    private long reserve() {
+        AccountNumberBlock block = accountNumberBlockRepository.findForUpdate(BLOCK_NAME)
+                .orElseGet(() -> new AccountNumberBlock(BLOCK_NAME, initialValue));
+        long start = block.getNextValue();
+        block.setNextValue(start + blockSize);
+        accountNumberBlockRepository.saveAndFlush(block);
+        return start;
+    }
+
+    private static final class Block {
+        private final AtomicLong next;
+        private final long end;
+
+        private Block(long start, long end) {
+            this.next = new AtomicLong(start);
+            this.end = end;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.gholap.accounts.cache;
+
+import com.gholap.accounts.constants.AccountsConstants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.stereotype.Component;
+
+/**
+ * Evicts customer account entries from the local near cache and broadcasts the eviction to the
+ * other accounts replicas over the accounts-cache-invalidation destination.
+ */
+@Component
+public class CustomerCacheInvalidator {
+
+    private static final Logger log = LoggerFactory.getLogger(CustomerCacheInvalidator.class);
+    private static final String BINDING_NAME = "invalidateCustomerCache-out-0";
+
+    private final CacheManager cacheManager;
+    private final StreamBridge streamBridge;
+
+    public CustomerCacheInvalidator(CacheManager cacheManager, StreamBridge streamBridge) {
+        this.cacheManager = cacheManager;
+        this.streamBridge = streamBridge;
+    }
+
+    public void evict(String mobileNumber) {
+        evictLocal(mobileNumber);
+        try {
+            streamBridge.send(BINDING_NAME, mobileNumber);
+        } catch (RuntimeException ex) {
+            // the entry still expires on the other replicas through the cache TTL
+            log.warn("Unable to broadcast cache invalidation for mobile number {}: {}", mobileNumber, ex.getMessage());
+        }
+    }
+
+    public void evictLocal(String mobileNumber) {
+        Cache cache = cacheManager.getCache(AccountsConstants.CUSTOMER_ACCOUNTS_CACHE);
+        if (cache != null && mobileNumber != null) {
+            cache.evict(mobileNumber);
+        }
+    }
+}
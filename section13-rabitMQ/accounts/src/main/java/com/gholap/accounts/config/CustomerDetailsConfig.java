@@ -0,0 +1,46 @@
+package com.gholap.accounts.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class CustomerDetailsConfig {
+
+    /**
+     * Dedicated pool for the customer details fan-out so slow loans/cards calls can never
+     * starve the Tomcat request threads or the common fork-join pool.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor customerDetailsExecutor(CustomerDetailsProperties properties) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("customer-details-");
+        executor.setCorePoolSize(properties.getPoolSize());
+        executor.setMaxPoolSize(properties.getPoolSize());
+        executor.setQueueCapacity(properties.getQueueCapacity());
+        executor.setAllowCoreThreadTimeOut(true);
+        // when saturated, degrade to running the leg on the caller instead of failing the request
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        // carry the request attributes (and with them the request deadline) onto the pool threads
+        executor.setTaskDecorator(task -> {
+            RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+            return () -> {
+                // CallerRunsPolicy may run the task on the request thread itself, so restore what was there
+                RequestAttributes previous = RequestContextHolder.getRequestAttributes();
+                RequestContextHolder.setRequestAttributes(requestAttributes);
+                try {
+                    task.run();
+                } finally {
+                    RequestContextHolder.setRequestAttributes(previous);
+                }
+            };
+        });
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,22 @@
+package com.gholap.accounts.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Tuning for the fetchCustomerDetails aggregation. When {@code parallel} is enabled the
+ * customer/account lookup and the loans and cards calls run at the same time on a
+ * dedicated executor, each bounded by {@code timeout}.
+ */
+@ConfigurationProperties(prefix = "customer-details")
+@Getter
+@Setter
+public class CustomerDetailsProperties {
+    private boolean parallel = true;
+    private Duration timeout = Duration.ofSeconds(3);
+    private int poolSize = 32;
+    private int queueCapacity = 200;
+}
@@ -0,0 +1,62 @@
+package com.gholap.accounts.config;
+
+import com.gholap.accounts.deadline.RequestDeadline;
+import feign.Capability;
+import feign.Client;
+import feign.Request;
+import feign.RequestInterceptor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class DeadlineFeignConfig {
+
+    /**
+     * Forwards the time left to loans and cards so they can drop work nobody waits for anymore.
+     */
+    @Bean
+    public RequestInterceptor deadlineRequestInterceptor() {
+        return template -> {
+            Long remaining = RequestDeadline.remainingMillis();
+            if (remaining != null) {
+                template.header(RequestDeadline.TIMEOUT_HEADER, Long.toString(Math.max(0, remaining)));
+            }
+        };
+    }
+
+    /**
+     * Caps the connect and read timeout of every Feign call at the time left for the request and
+     * skips the call entirely when the deadline has already passed; the client fallbacks then
+     * leave that section of the response empty.
+     */
+    @Bean
+    public Capability deadlineCapability(MeterRegistry meterRegistry) {
+        Counter skipped = Counter.builder("deadline.calls.skipped")
+                .description("Outbound calls not made because the request deadline had passed")
+                .register(meterRegistry);
+        return new Capability() {
+            @Override
+            public Client enrich(Client client) {
+                return (request, options) -> {
+                    Long remaining = RequestDeadline.remainingMillis();
+                    if (remaining == null) {
+                        return client.execute(request, options);
+                    }
+                    if (remaining <= 0) {
+                        skipped.increment();
+                        throw new IllegalStateException("Deadline exceeded before calling " + request.url());
+                    }
+                    Request.Options deadlineOptions = new Request.Options(
+                            Math.min(options.connectTimeoutMillis(), remaining), TimeUnit.MILLISECONDS,
+                            Math.min(options.readTimeoutMillis(), remaining), TimeUnit.MILLISECONDS,
+                            options.isFollowRedirects());
+                    return client.execute(request, deadlineOptions);
+                };
+            }
+        };
+    }
+}
@@ -17,5 +17,12 @@ public class AccountsConstants {
     public static final String MESSAGE_417_DELETE = "Delete operation failed.Please try again or contact Dev team";
     public static final String STATUS_500="500";
     public static final String MESSAGE_500="An error occurred.Please try again or contact Dev team";
+    public static final String CUSTOMER_ACCOUNTS_CACHE = "customerAccounts";
+    public static final String NDJSON = "application/x-ndjson";
+    public static final String CSV = "text/csv";
+    public static final String BULK_STATUS_CREATED = "CREATED";
+    public static final String BULK_STATUS_DUPLICATE = "DUPLICATE";
+    public static final String BULK_STATUS_INVALID = "INVALID";
+    public static final String BULK_STATUS_FAILED = "FAILED";
 
 }
@@ -6,6 +6,7 @@ import com.gholap.accounts.dto.CustomerDto;
 import com.gholap.accounts.dto.ErrorResponseDto;
 import com.gholap.accounts.dto.ResponseDto;
 import com.gholap.accounts.service.IAccountsService;
+import com.gholap.accounts.service.IBulkOnboardingService;
 import io.github.resilience4j.ratelimiter.annotation.RateLimiter;
 import io.github.resilience4j.retry.annotation.Retry;
 import io.swagger.v3.oas.annotations.Operation;
@@ -14,6 +15,7 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Pattern;
 import lombok.AllArgsConstructor;
@@ -22,12 +24,15 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.concurrent.TimeoutException;
 
 @Tag(
@@ -42,9 +47,11 @@ public class AccountsController {
     private static final Logger logger = LoggerFactory.getLogger(AccountsController.class);
 
     private final IAccountsService iAccountsService;
+    private final IBulkOnboardingService iBulkOnboardingService;
 
-    public AccountsController(IAccountsService iAccountsService) {
+    public AccountsController(IAccountsService iAccountsService, IBulkOnboardingService iBulkOnboardingService) {
         this.iAccountsService = iAccountsService;
+        this.iBulkOnboardingService = iBulkOnboardingService;
     }
 
     //1st approach to read configuration
@@ -75,6 +82,41 @@ public class AccountsController {
                 .body(new ResponseDto(AccountsConstants.STATUS_201,AccountsConstants.MESSAGE_201));
     }
 
+    @Operation(
+            summary = "Bulk Create Accounts REST API",
+            description = "REST API to onboard a stream of customers (NDJSON of Customer or CSV of name,email,mobileNumber). "
+                    + "Responds with one NDJSON result line per input row"
+    )
+    @ApiResponse(
+            responseCode = "200",
+            description = "HTTP Status OK"
+    )
+    @PostMapping(value = "/create/bulk", consumes = {AccountsConstants.NDJSON, AccountsConstants.CSV},
+            produces = AccountsConstants.NDJSON)
+    public void createAccountsBulk(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType, InputStream body,
+                                   HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(AccountsConstants.NDJSON);
+        boolean csv = MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.parseMediaType(AccountsConstants.CSV));
+        iBulkOnboardingService.onboard(body, csv, response.getOutputStream());
+    }
+
+    @Operation(
+            summary = "Export Accounts REST API",
+            description = "REST API to stream every Customer & Account as NDJSON, one line per customer"
+    )
+    @ApiResponse(
+            responseCode = "200",
+            description = "HTTP Status OK"
+    )
+    @GetMapping(value = "/export", produces = AccountsConstants.NDJSON)
+    public void exportAccounts(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(AccountsConstants.NDJSON);
+        long exported = iAccountsService.exportAccounts(response.getOutputStream());
+        logger.debug("exportAccounts streamed {} rows", exported);
+    }
+
     @Operation(
             summary = "Fetch Account Details REST API",
             description = "REST API to fetch Customer & Account details based on a mobileNumber"
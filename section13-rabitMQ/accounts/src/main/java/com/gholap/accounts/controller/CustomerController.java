@@ -9,7 +9,9 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
@@ -18,6 +20,8 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @Tag(
         name = "REST API for Customer in EazyBank",
         description = "REST APIs in EazyBank to FETCH customer details"
@@ -61,4 +65,33 @@ public class CustomerController {
         logger.debug("fetchCustomerDetails method end");
       return ResponseEntity.status(HttpStatus.OK).body(customerDetailsDto);
     }
+
+    @Operation(
+            summary = "Fetch Customer Details in Batch REST API",
+            description = "REST API to fetch Customer details for a list of mobileNumbers. Unknown mobile numbers are skipped"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "HTTP Status OK"
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Http Status Internal Server Error",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDto.class)
+                    )
+            )
+    })
+    @PostMapping("/fetchCustomerDetails/batch")
+    public ResponseEntity<List<CustomerDetailsDto>> fetchCustomerDetailsBatch(@RequestHeader("eazybank-correlation-id") String correlationId,
+                                                                              @RequestBody
+                                                                              @NotEmpty(message = "Mobile numbers can not be empty")
+                                                                              @Size(max = 500, message = "At most 500 mobile numbers can be fetched at once")
+                                                                              List<@Pattern(regexp = "(^$|[0-9]{10})",message = "Mobile number must be 10 digit") String> mobileNumbers){
+        logger.debug("fetchCustomerDetailsBatch method start for {} mobile numbers", mobileNumbers.size());
+        List<CustomerDetailsDto> customerDetailsDtos = iCustomerService.fetchCustomerDetailsBatch(mobileNumbers,correlationId);
+        logger.debug("fetchCustomerDetailsBatch method end");
+        return ResponseEntity.status(HttpStatus.OK).body(customerDetailsDtos);
+    }
 }
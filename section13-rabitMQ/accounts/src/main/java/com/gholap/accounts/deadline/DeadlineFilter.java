@@ -0,0 +1,61 @@
+package com.gholap.accounts.deadline;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Turns the eazybank-timeout-ms header set by the gateway into a request deadline. Requests that
+ * arrive with no time left are answered with 504 before any work is done; requests that finish
+ * after their deadline are counted as wasted work, since nobody is waiting for the answer anymore.
+ */
+@Component
+public class DeadlineFilter extends OncePerRequestFilter {
+
+    private final Counter rejected;
+    private final Counter wasted;
+
+    public DeadlineFilter(MeterRegistry meterRegistry) {
+        this.rejected = Counter.builder("deadline.requests.rejected")
+                .description("Requests refused because their deadline had already passed")
+                .register(meterRegistry);
+        this.wasted = Counter.builder("deadline.work.wasted")
+                .description("Requests completed after their deadline had passed")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String timeout = request.getHeader(RequestDeadline.TIMEOUT_HEADER);
+        if (timeout == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        long timeoutMillis;
+        try {
+            timeoutMillis = Long.parseLong(timeout);
+        } catch (NumberFormatException ex) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (timeoutMillis <= 0) {
+            rejected.increment();
+            response.sendError(HttpStatus.GATEWAY_TIMEOUT.value(), "Deadline exceeded");
+            return;
+        }
+        RequestDeadline.start(timeoutMillis);
+        filterChain.doFilter(request, response);
+        if (RequestDeadline.isExpired()) {
+            wasted.increment();
+        }
+    }
+}
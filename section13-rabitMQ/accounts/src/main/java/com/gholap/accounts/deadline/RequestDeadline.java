@@ -0,0 +1,39 @@
+package com.gholap.accounts.deadline;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * Deadline of the current request, kept as a request attribute so it follows the request onto the
+ * customer-details pool and the Feign circuit breaker threads along with the RequestAttributes.
+ */
+public final class RequestDeadline {
+
+    public static final String TIMEOUT_HEADER = "eazybank-timeout-ms";
+    private static final String ATTRIBUTE = RequestDeadline.class.getName();
+
+    private RequestDeadline() {
+    }
+
+    static void start(long timeoutMillis) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            attributes.setAttribute(ATTRIBUTE, System.nanoTime() + timeoutMillis * 1_000_000,
+                    RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    /**
+     * @return milliseconds left before the caller gives up, or null when the request has no deadline
+     */
+    public static Long remainingMillis() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        Object deadline = attributes != null ? attributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) : null;
+        return deadline != null ? ((Long) deadline - System.nanoTime()) / 1_000_000 : null;
+    }
+
+    public static boolean isExpired() {
+        Long remaining = remainingMillis();
+        return remaining != null && remaining <= 0;
+    }
+}
@@ -0,0 +1,7 @@
+package com.gholap.accounts.dto;
+
+/**
+ * Outcome of one input row of the bulk onboarding API, written back as one NDJSON line.
+ */
+public record BulkOnboardingResultDto(long line, String mobileNumber, String status, Long accountNumber, String message) {
+}
@@ -0,0 +1,9 @@
+package com.gholap.accounts.dto;
+
+/**
+ * Read-only projection of a customer joined with its account. The account columns are null
+ * when the customer has no account.
+ */
+public record CustomerAccountDto(Long customerId, String name, String email, String mobileNumber,
+                                 Long accountNumber, String accountType, String branchAddress) {
+}
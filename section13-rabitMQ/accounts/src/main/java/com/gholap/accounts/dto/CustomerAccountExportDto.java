@@ -0,0 +1,12 @@
+package com.gholap.accounts.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Flat customer + account row of the warehouse export, built straight from the query so no
+ * managed entities pile up in the persistence context while streaming.
+ */
+public record CustomerAccountExportDto(Long customerId, String name, String email, String mobileNumber,
+                                       Long accountNumber, String accountType, String branchAddress,
+                                       Boolean communicationSw, LocalDateTime createdAt) {
+}
@@ -0,0 +1,19 @@
+package com.gholap.accounts.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.*;
+
+@Entity
+@Table(name = "account_number_block")
+@Getter @Setter @ToString @NoArgsConstructor @AllArgsConstructor
+public class AccountNumberBlock {
+
+    @Id
+    @Column(name = "block_name")
+    private String blockName;
+    @Column(name = "next_value")
+    private Long nextValue;
+}
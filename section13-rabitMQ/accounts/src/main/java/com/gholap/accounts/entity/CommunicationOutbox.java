@@ -0,0 +1,28 @@
+package com.gholap.accounts.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "communication_outbox")
+@Getter @Setter @ToString @NoArgsConstructor @AllArgsConstructor
+public class CommunicationOutbox extends BaseEntity{
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE,generator = "communication_outbox_seq")
+    @SequenceGenerator(name = "communication_outbox_seq",sequenceName = "communication_outbox_seq",allocationSize = 50)
+    @Column(name = "outbox_id")
+    private Long outboxId;
+    @Column(name = "account_number")
+    private Long accountNumber;
+    private String name;
+    private String email;
+    @Column(name = "mobile_number")
+    private String mobileNumber;
+    private int attempts;
+    private boolean parked;
+    @Column(name = "claimed_until")
+    private LocalDateTime claimedUntil;
+}
@@ -2,18 +2,26 @@ package com.gholap.accounts.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
-import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@NaturalIdCache
 @Getter @Setter @ToString @NoArgsConstructor @AllArgsConstructor
 public class Customer extends BaseEntity{
 
+    // pooled sequence instead of native/identity so inserts can be JDBC batched
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO,generator = "native")
-    @GenericGenerator(name = "native",strategy = "native")
+    @GeneratedValue(strategy = GenerationType.SEQUENCE,generator = "customer_seq")
+    @SequenceGenerator(name = "customer_seq",sequenceName = "customer_seq",allocationSize = 50)
     @Column(name = "customer_id")
     private Long customerId;
     private String name;
     private String email;
+    @NaturalId(mutable = true)
     private String mobileNumber;
 }
@@ -78,4 +78,18 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         );
         return new ResponseEntity<>(errorResponseDto,HttpStatus.NOT_FOUND);
     }
+
+    @ExceptionHandler(UpstreamTimeoutException.class)
+    public ResponseEntity<ErrorResponseDto> handleUpstreamTimeoutException(UpstreamTimeoutException exception
+            , WebRequest webRequest){
+
+        ErrorResponseDto errorResponseDto = new ErrorResponseDto(
+                //provide only api path
+                webRequest.getDescription(false),
+                HttpStatus.GATEWAY_TIMEOUT,
+                exception.getMessage(),
+                LocalDateTime.now()
+        );
+        return new ResponseEntity<>(errorResponseDto,HttpStatus.GATEWAY_TIMEOUT);
+    }
 }
@@ -0,0 +1,12 @@
+package com.gholap.accounts.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value= HttpStatus.GATEWAY_TIMEOUT)
+public class UpstreamTimeoutException extends RuntimeException{
+
+    public UpstreamTimeoutException(String resourceName, String fieldName, String fieldValue){
+        super(String.format("Timed out fetching %s for the given input data %s: '%s'",resourceName,fieldName,fieldValue));
+    }
+}
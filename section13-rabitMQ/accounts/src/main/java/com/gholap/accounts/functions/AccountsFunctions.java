@@ -1,11 +1,21 @@
 package com.gholap.accounts.functions;
 
+import com.gholap.accounts.cache.CustomerCacheInvalidator;
 import com.gholap.accounts.service.IAccountsService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.QueueInformation;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.List;
 import java.util.function.Consumer;
 
 @Configuration
@@ -13,11 +23,55 @@ public class AccountsFunctions {
 
     private static final Logger log = LoggerFactory.getLogger(AccountsFunctions.class);
 
+    /**
+     * Runs in batch mode: the binder hands over up to batchSize account numbers (or whatever
+     * arrived within receiveTimeout) and they are flagged with a single bulk update.
+     */
     @Bean
-    public Consumer<Long> updateCommunication(IAccountsService accountsService){
-        return accountNumber -> {
-            log.info("Updating Coomunication status for the account number: "+accountNumber.toString());
-            accountsService.updateCommunicationStatus(accountNumber);
+    public Consumer<List<Long>> updateCommunication(IAccountsService accountsService, MeterRegistry meterRegistry){
+        DistributionSummary batchSize = DistributionSummary.builder("accounts.communication.batch.size")
+                .description("Account numbers acknowledged per communication-sent batch")
+                .register(meterRegistry);
+        Timer batchUpdate = Timer.builder("accounts.communication.batch.update")
+                .description("Time taken to flag a communication-sent batch in the database")
+                .register(meterRegistry);
+        return accountNumbers -> {
+            log.info("Updating Communication status for {} account numbers", accountNumbers.size());
+            batchSize.record(accountNumbers.size());
+            int updated = batchUpdate.record(() -> accountsService.updateCommunicationStatus(accountNumbers));
+            if (updated != accountNumbers.size()) {
+                log.warn("Only {} of {} account numbers were found while updating communication status",
+                        updated, accountNumbers.size());
+            }
         };
     }
+
+    @Bean
+    public Consumer<String> invalidateCustomerCache(CustomerCacheInvalidator customerCacheInvalidator){
+        return mobileNumber -> {
+            log.debug("Evicting cached customer account for mobile number: {}", mobileNumber);
+            customerCacheInvalidator.evictLocal(mobileNumber);
+        };
+    }
+
+    /**
+     * Consumer lag, i.e. the number of communication-sent acknowledgements still waiting in the queue.
+     */
+    @Bean
+    public MeterBinder communicationSentLag(AmqpAdmin amqpAdmin,
+                                            @Value("${spring.cloud.stream.bindings.updateCommunication-in-0.destination}."
+                                                    + "${spring.cloud.stream.bindings.updateCommunication-in-0.group}")
+                                            String queueName){
+        return registry -> Gauge.builder("accounts.communication.lag", () -> {
+                    try {
+                        QueueInformation queueInformation = amqpAdmin.getQueueInfo(queueName);
+                        return queueInformation == null ? Double.NaN : queueInformation.getMessageCount();
+                    } catch (RuntimeException ex) {
+                        return Double.NaN;
+                    }
+                })
+                .description("Messages waiting in the communication-sent queue")
+                .tag("queue", queueName)
+                .register(registry);
+    }
 }
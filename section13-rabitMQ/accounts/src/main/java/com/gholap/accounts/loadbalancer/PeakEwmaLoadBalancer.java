@@ -0,0 +1,191 @@
+package com.gholap.accounts.loadbalancer;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.TimedRequestContext;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Power-of-two-choices balancer: picks two random instances and sends the request to the one with
+ * the lower cost, where cost = peak-EWMA latency x (outstanding requests + 1) / weight. The EWMA
+ * jumps to any slower sample straight away and only decays back gradually, so a pod that starts
+ * stalling is avoided after its first slow responses. The weight comes from the "weight" key of
+ * the Eureka instance metadata and defaults to 1.
+ * <p>
+ * The balancer is also registered as the LoadBalancerLifecycle of its client, which is how it
+ * learns when requests start and finish.
+ */
+public class PeakEwmaLoadBalancer implements ReactorServiceInstanceLoadBalancer,
+        LoadBalancerLifecycle<Object, Object, ServiceInstance> {
+
+    static final String WEIGHT_METADATA_KEY = "weight";
+    private static final double DECAY_NANOS = 10_000_000_000d;
+    private static final double MIN_LATENCY_NANOS = 1_000_000d;
+
+    private final ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider;
+    private final String serviceId;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, InstanceStats> stats = new ConcurrentHashMap<>();
+
+    public PeakEwmaLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider,
+                                String serviceId, MeterRegistry meterRegistry) {
+        this.serviceInstanceListSupplierProvider = serviceInstanceListSupplierProvider;
+        this.serviceId = serviceId;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier = serviceInstanceListSupplierProvider
+                .getIfAvailable(NoopServiceInstanceListSupplier::new);
+        return supplier.get(request).next().map(this::choose);
+    }
+
+    private Response<ServiceInstance> choose(List<ServiceInstance> instances) {
+        if (instances.isEmpty()) {
+            return new EmptyResponse();
+        }
+        forgetGoneInstances(instances);
+        if (instances.size() == 1) {
+            return new DefaultResponse(instances.get(0));
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(instances.size());
+        int second = random.nextInt(instances.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+        ServiceInstance a = instances.get(first);
+        ServiceInstance b = instances.get(second);
+        long now = System.nanoTime();
+        return new DefaultResponse(stats(a).cost(now) <= stats(b).cost(now) ? a : b);
+    }
+
+    @Override
+    public boolean supports(Class requestContextClass, Class responseClass, Class serverTypeClass) {
+        return ServiceInstance.class.isAssignableFrom(serverTypeClass);
+    }
+
+    @Override
+    public void onStart(Request<Object> request) {
+    }
+
+    @Override
+    public void onStartRequest(Request<Object> request, Response<ServiceInstance> lbResponse) {
+        if (request.getContext() instanceof TimedRequestContext timedRequestContext) {
+            timedRequestContext.setRequestStartTime(System.nanoTime());
+        }
+        if (lbResponse.hasServer()) {
+            stats(lbResponse.getServer()).outstanding.incrementAndGet();
+        }
+    }
+
+    @Override
+    public void onComplete(CompletionContext<Object, ServiceInstance, Object> completionContext) {
+        Response<ServiceInstance> lbResponse = completionContext.getLoadBalancerResponse();
+        if (lbResponse == null || !lbResponse.hasServer()) {
+            return;
+        }
+        // never recreate stats here: a forgotten instance would come back with a negative count
+        InstanceStats instanceStats = stats.get(key(lbResponse.getServer()));
+        if (instanceStats == null) {
+            return;
+        }
+        instanceStats.outstanding.decrementAndGet();
+        Request<Object> lbRequest = completionContext.getLoadBalancerRequest();
+        Object context = lbRequest != null ? lbRequest.getContext() : null;
+        if (context instanceof TimedRequestContext timedRequestContext && timedRequestContext.getRequestStartTime() > 0) {
+            long now = System.nanoTime();
+            long rtt = now - timedRequestContext.getRequestStartTime();
+            // a failed call counts as very slow so the instance is avoided until it recovers
+            instanceStats.observe(completionContext.status() == CompletionContext.Status.FAILED
+                    ? Math.max(rtt, (long) DECAY_NANOS / 10) : rtt, now);
+        }
+    }
+
+    private InstanceStats stats(ServiceInstance instance) {
+        return stats.computeIfAbsent(key(instance), key -> new InstanceStats(key, weight(instance)));
+    }
+
+    private void forgetGoneInstances(List<ServiceInstance> instances) {
+        if (stats.size() <= instances.size()) {
+            return;
+        }
+        Set<String> current = instances.stream().map(PeakEwmaLoadBalancer::key).collect(Collectors.toSet());
+        stats.entrySet().removeIf(entry -> {
+            // an instance that left with requests still in flight is forgotten once they are released
+            if (current.contains(entry.getKey()) || entry.getValue().outstanding.get() > 0) {
+                return false;
+            }
+            meterRegistry.remove(entry.getValue().gauge);
+            return true;
+        });
+    }
+
+    private static String key(ServiceInstance instance) {
+        return instance.getHost() + ":" + instance.getPort();
+    }
+
+    private static double weight(ServiceInstance instance) {
+        String weight = instance.getMetadata().get(WEIGHT_METADATA_KEY);
+        try {
+            return weight != null ? Math.max(0.01, Double.parseDouble(weight)) : 1;
+        } catch (NumberFormatException ex) {
+            return 1;
+        }
+    }
+
+    private final class InstanceStats {
+
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private final double weight;
+        private final Gauge gauge;
+        private double ewmaNanos;
+        private long lastUpdateNanos = System.nanoTime();
+
+        private InstanceStats(String instance, double weight) {
+            this.weight = weight;
+            this.gauge = Gauge.builder("loadbalancer.instance.score", this, stats -> stats.cost(System.nanoTime()) / 1_000_000)
+                    .description("Peak-EWMA cost of an instance, lower is preferred")
+                    .tag("service", serviceId)
+                    .tag("instance", instance)
+                    .register(meterRegistry);
+        }
+
+        private synchronized void observe(long rttNanos, long now) {
+            if (rttNanos > ewmaNanos) {
+                ewmaNanos = rttNanos;
+            } else {
+                double decay = Math.exp(-(now - lastUpdateNanos) / DECAY_NANOS);
+                ewmaNanos = ewmaNanos * decay + rttNanos * (1 - decay);
+            }
+            lastUpdateNanos = now;
+        }
+
+        private synchronized double cost(long now) {
+            // with nothing heard for a while the latency estimate fades, so idle instances get probed again;
+            // the floor keeps outstanding requests counting for instances that have no samples yet
+            double decayed = Math.max(MIN_LATENCY_NANOS, ewmaNanos * Math.exp(-(now - lastUpdateNanos) / DECAY_NANOS));
+            return decayed * (outstanding.get() + 1) / weight;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.gholap.accounts.mapper;
 
 import com.gholap.accounts.dto.AccountsDto;
+import com.gholap.accounts.dto.CustomerAccountDto;
 import com.gholap.accounts.entity.Accounts;
 
 public class AccountsMapper {
@@ -12,6 +13,13 @@ public class AccountsMapper {
         return accountsDto;
     }
 
+    public static AccountsDto mapToAccountsDto(CustomerAccountDto customerAccountDto, AccountsDto accountsDto){
+        accountsDto.setAccountNumber(customerAccountDto.accountNumber());
+        accountsDto.setAccountType(customerAccountDto.accountType());
+        accountsDto.setBranchAddress(customerAccountDto.branchAddress());
+        return accountsDto;
+    }
+
     public static Accounts mapToAccounts(AccountsDto accountsDto, Accounts accounts){
         accounts.setAccountNumber(accountsDto.getAccountNumber());
         accounts.setAccountType(accountsDto.getAccountType());
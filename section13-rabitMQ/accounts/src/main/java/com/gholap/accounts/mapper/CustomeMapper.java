@@ -1,5 +1,6 @@
 package com.gholap.accounts.mapper;
 
+import com.gholap.accounts.dto.CustomerAccountDto;
 import com.gholap.accounts.dto.CustomerDetailsDto;
 import com.gholap.accounts.dto.CustomerDto;
 import com.gholap.accounts.entity.Customer;
@@ -13,6 +14,13 @@ public class CustomeMapper {
         return customerDto;
     }
 
+    public static CustomerDto mapToCustomerDto(CustomerAccountDto customerAccountDto, CustomerDto customerDto){
+        customerDto.setName(customerAccountDto.name());
+        customerDto.setEmail(customerAccountDto.email());
+        customerDto.setMobileNumber(customerAccountDto.mobileNumber());
+        return customerDto;
+    }
+
     public static Customer mapToCustomer(CustomerDto customerDto, Customer customer){
         customer.setName(customerDto.getName());
         customer.setEmail(customerDto.getEmail());
@@ -27,4 +35,11 @@ public class CustomeMapper {
         return customerDetailsDto;
     }
 
+    public static CustomerDetailsDto mapToCustomerDetailsDto(CustomerAccountDto customerAccountDto, CustomerDetailsDto customerDetailsDto){
+        customerDetailsDto.setName(customerAccountDto.name());
+        customerDetailsDto.setEmail(customerAccountDto.email());
+        customerDetailsDto.setMobileNumber(customerAccountDto.mobileNumber());
+        return customerDetailsDto;
+    }
+
 }
@@ -0,0 +1,162 @@
+package com.gholap.accounts.outbox;
+
+import com.gholap.accounts.dto.AccountsMsgDto;
+import com.gholap.accounts.entity.CommunicationOutbox;
+import com.gholap.accounts.repository.CommunicationOutboxRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.support.AmqpHeaders;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes the rows written to the communication outbox by account creation. A batch is first
+ * claimed in a short locking transaction, then published with publisher confirms outside of
+ * any transaction, and settled in a second one: acked rows are deleted, the rest get their
+ * attempts bumped and stay claimed for an exponential backoff (doubling from {@code retry-backoff}
+ * up to {@code max-backoff}) before they are retried, and are parked once they reach
+ * {@code max-attempts}. A run stops at the first batch that is not fully confirmed, so a broker
+ * outage costs one batch per poll and a few retries per row rather than burning through the
+ * attempts of the whole backlog. A message is never lost; it simply stays behind for a later poll.
+ */
+@Component
+public class CommunicationOutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(CommunicationOutboxRelay.class);
+    private static final String BINDING_NAME = "sendCommunication-out-0";
+
+    private final CommunicationOutboxRepository communicationOutboxRepository;
+    private final StreamBridge streamBridge;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${communication.outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${communication.outbox.confirm-timeout:5000}")
+    private long confirmTimeout;
+
+    @Value("${communication.outbox.max-attempts:20}")
+    private int maxAttempts;
+
+    @Value("${communication.outbox.claim-timeout:30000}")
+    private long claimTimeout;
+
+    @Value("${communication.outbox.retry-backoff:1000}")
+    private long retryBackoff;
+
+    @Value("${communication.outbox.max-backoff:300000}")
+    private long maxBackoff;
+
+    public CommunicationOutboxRelay(CommunicationOutboxRepository communicationOutboxRepository,
+                                    StreamBridge streamBridge, TransactionTemplate transactionTemplate) {
+        this.communicationOutboxRepository = communicationOutboxRepository;
+        this.streamBridge = streamBridge;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Scheduled(fixedDelayString = "${communication.outbox.poll-interval:500}")
+    public void relay() {
+        List<CommunicationOutbox> claimed;
+        List<CommunicationOutbox> confirmed;
+        do {
+            claimed = transactionTemplate.execute(status -> claimBatch());
+            if (claimed == null || claimed.isEmpty()) {
+                return;
+            }
+            confirmed = publish(claimed);
+            List<CommunicationOutbox> failed = new ArrayList<>(claimed);
+            failed.removeAll(confirmed);
+            transactionTemplate.executeWithoutResult(status -> settle(confirmed, failed));
+            log.info("Relayed {} of {} pending communication requests", confirmed.size(), claimed.size());
+        } while (confirmed.size() == batchSize);
+    }
+
+    /**
+     * Marks a page of pending rows as claimed until the claim timeout, so other replicas skip
+     * them once this transaction commits and releases the row locks.
+     */
+    private List<CommunicationOutbox> claimBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<CommunicationOutbox> pending = communicationOutboxRepository
+                .findClaimable(now, PageRequest.of(0, batchSize));
+        LocalDateTime claimedUntil = now.plus(claimTimeout, ChronoUnit.MILLIS);
+        pending.forEach(outbox -> outbox.setClaimedUntil(claimedUntil));
+        return pending;
+    }
+
+    private List<CommunicationOutbox> publish(List<CommunicationOutbox> claimed) {
+        Map<CommunicationOutbox, CorrelationData> inFlight = new LinkedHashMap<>();
+        for (CommunicationOutbox outbox : claimed) {
+            CorrelationData correlationData = new CorrelationData(outbox.getOutboxId().toString());
+            var accountsMsgDto = new AccountsMsgDto(outbox.getAccountNumber(), outbox.getName(),
+                    outbox.getEmail(), outbox.getMobileNumber());
+            Message<AccountsMsgDto> message = MessageBuilder.withPayload(accountsMsgDto)
+                    .setHeader(AmqpHeaders.PUBLISH_CONFIRM_CORRELATION, correlationData)
+                    .build();
+            try {
+                if (streamBridge.send(BINDING_NAME, message)) {
+                    inFlight.put(outbox, correlationData);
+                }
+            } catch (Exception ex) {
+                // e.g. AmqpConnectException while the broker is down: the row is settled as failed
+                log.warn("Could not send communication for account number {}: {}", outbox.getAccountNumber(), ex.toString());
+            }
+        }
+
+        // one confirm timeout for the whole batch, so a claimed batch always settles well within its claim
+        long confirmDeadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(confirmTimeout);
+        List<CommunicationOutbox> confirmed = new ArrayList<>();
+        for (Map.Entry<CommunicationOutbox, CorrelationData> entry : inFlight.entrySet()) {
+            CommunicationOutbox outbox = entry.getKey();
+            try {
+                long remaining = Math.max(0, confirmDeadline - System.nanoTime());
+                if (entry.getValue().getFuture().get(remaining, TimeUnit.NANOSECONDS).isAck()) {
+                    confirmed.add(outbox);
+                    continue;
+                }
+                log.warn("Broker nacked communication for account number: {}", outbox.getAccountNumber());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            } catch (Exception ex) {
+                log.warn("No confirm for communication of account number {}: {}", outbox.getAccountNumber(), ex.toString());
+            }
+        }
+        return confirmed;
+    }
+
+    private void settle(List<CommunicationOutbox> confirmed, List<CommunicationOutbox> failed) {
+        communicationOutboxRepository.deleteAllByIdInBatch(
+                confirmed.stream().map(CommunicationOutbox::getOutboxId).toList());
+        LocalDateTime now = LocalDateTime.now();
+        for (CommunicationOutbox outbox : failed) {
+            outbox.setAttempts(outbox.getAttempts() + 1);
+            // keep the row claimed until its next attempt is due
+            outbox.setClaimedUntil(now.plus(backoff(outbox.getAttempts()), ChronoUnit.MILLIS));
+            if (outbox.getAttempts() >= maxAttempts) {
+                outbox.setParked(true);
+                log.error("Parked communication for account number {} after {} attempts",
+                        outbox.getAccountNumber(), outbox.getAttempts());
+            }
+        }
+        communicationOutboxRepository.saveAll(failed);
+    }
+
+    private long backoff(int attempts) {
+        return Math.min(maxBackoff, retryBackoff << Math.min(attempts - 1, 20));
+    }
+}
@@ -0,0 +1,12 @@
+package com.gholap.accounts.repository;
+
+import java.util.Collection;
+
+public interface AccountsCommunicationRepository {
+
+    /**
+     * Sets communicationSw for all the given accounts with a single bulk update, evicting only
+     * those accounts from the second-level cache instead of the whole Accounts region.
+     */
+    int updateCommunicationSwByAccountNumberIn(Collection<Long> accountNumbers);
+}
@@ -0,0 +1,51 @@
+package com.gholap.accounts.repository;
+
+import com.gholap.accounts.entity.Accounts;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManager;
+import org.hibernate.query.NativeQuery;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+
+public class AccountsCommunicationRepositoryImpl implements AccountsCommunicationRepository {
+
+    // a JPQL bulk update, or a native one without declared query spaces, makes Hibernate drop the
+    // whole Accounts region; this space matches no entity, so nothing is invalidated implicitly
+    private static final String COMMUNICATION_SW_QUERY_SPACE = "accounts_communication_sw";
+
+    private final EntityManager entityManager;
+
+    public AccountsCommunicationRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    @Transactional
+    public int updateCommunicationSwByAccountNumberIn(Collection<Long> accountNumbers) {
+        List<Long> ids = List.copyOf(accountNumbers);
+        int updated = entityManager
+                .createNativeQuery("update accounts set communication_sw = true where account_number in (:accountNumbers)")
+                .setParameter("accountNumbers", ids)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace(COMMUNICATION_SW_QUERY_SPACE)
+                .executeUpdate();
+        Cache cache = entityManager.getEntityManagerFactory().getCache();
+        evict(cache, ids);
+        // evict again once committed, in case a concurrent read cached the old row in between
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                evict(cache, ids);
+            }
+        });
+        return updated;
+    }
+
+    private static void evict(Cache cache, List<Long> ids) {
+        ids.forEach(id -> cache.evict(Accounts.class, id));
+    }
+}
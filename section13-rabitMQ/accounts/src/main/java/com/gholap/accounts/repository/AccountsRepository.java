@@ -6,14 +6,18 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface AccountsRepository extends JpaRepository<Accounts, Long> {
+public interface AccountsRepository extends JpaRepository<Accounts, Long>, AccountsCommunicationRepository {
 
 
     Optional<Accounts> findByCustomerId(Long customerId);
 
+    List<Accounts> findByCustomerIdIn(Collection<Long> customerIds);
+
     @Transactional
     @Modifying
     void deleteByCustomerId(Long customerId);
@@ -0,0 +1,31 @@
+package com.gholap.accounts.repository;
+
+import com.gholap.accounts.entity.CommunicationOutbox;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface CommunicationOutboxRepository extends JpaRepository<CommunicationOutbox, Long> {
+
+    /**
+     * Pending messages that are neither parked, claimed by another relay nor backing off after a
+     * failed attempt (claimedUntil doubles as the time of the next attempt), least retried
+     * first so a few failing rows cannot hold up the head of the outbox. Locked with SKIP
+     * LOCKED (lock timeout -2) so several accounts replicas can claim batches side by side.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select o from CommunicationOutbox o where o.parked = false " +
+            "and (o.claimedUntil is null or o.claimedUntil < :now) order by o.attempts asc, o.outboxId asc")
+    List<CommunicationOutbox> findClaimable(@Param("now") LocalDateTime now, Pageable pageable);
+}
@@ -0,0 +1,14 @@
+package com.gholap.accounts.repository;
+
+import com.gholap.accounts.entity.Customer;
+
+import java.util.Optional;
+
+public interface CustomerNaturalIdRepository {
+
+    /**
+     * Loads the customer through its mobileNumber natural id, so repeated lookups are answered
+     * from the natural-id and second-level caches instead of running a query.
+     */
+    Optional<Customer> findByMobileNumber(String mobileNumber);
+}
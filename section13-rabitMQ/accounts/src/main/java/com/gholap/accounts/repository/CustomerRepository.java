@@ -1,13 +1,49 @@
 package com.gholap.accounts.repository;
 
+import com.gholap.accounts.dto.CustomerAccountDto;
+import com.gholap.accounts.dto.CustomerAccountExportDto;
 import com.gholap.accounts.entity.Customer;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface CustomerRepository extends JpaRepository<Customer,Long> {
+public interface CustomerRepository extends JpaRepository<Customer,Long>, CustomerNaturalIdRepository {
 
-    Optional<Customer> findByMobileNumber(String mobileNumber);
+    List<Customer> findByMobileNumberIn(Collection<String> mobileNumbers);
+
+    /**
+     * Customer and account in one round trip, projected straight into a DTO so nothing is
+     * loaded into the persistence context or dirty checked.
+     */
+    @Transactional(readOnly = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("select new com.gholap.accounts.dto.CustomerAccountDto(c.customerId, c.name, c.email, c.mobileNumber, "
+            + "a.accountNumber, a.accountType, a.branchAddress) "
+            + "from Customer c left join Accounts a on a.customerId = c.customerId where c.mobileNumber = :mobileNumber")
+    Optional<CustomerAccountDto> findCustomerAccountByMobileNumber(@Param("mobileNumber") String mobileNumber);
+
+    /**
+     * Forward-only cursor over every customer and its account. Has to be consumed inside a
+     * transaction and closed afterwards.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("select new com.gholap.accounts.dto.CustomerAccountExportDto(c.customerId, c.name, c.email, c.mobileNumber, "
+            + "a.accountNumber, a.accountType, a.branchAddress, a.communicationSw, c.createdAt) "
+            + "from Customer c left join Accounts a on a.customerId = c.customerId order by c.customerId")
+    Stream<CustomerAccountExportDto> streamAllForExport();
 }
@@ -2,6 +2,10 @@ package com.gholap.accounts.service;
 
 import com.gholap.accounts.dto.CustomerDto;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
 public interface IAccountsService {
     /**
      *
@@ -12,5 +16,17 @@ public interface IAccountsService {
     boolean updateAccount(CustomerDto customerDto);
     boolean deleteAccount(String mobileNumber);
 
-    boolean updateCommunicationStatus(Long accountNumber);
+    /**
+     *
+     * @param accountNumbers - account numbers whose communication has been sent
+     * @return number of accounts updated by the single bulk update
+     */
+    int updateCommunicationStatus(List<Long> accountNumbers);
+
+    /**
+     *
+     * @param output - stream receiving every customer and account as one NDJSON line each
+     * @return number of rows exported
+     */
+    long exportAccounts(OutputStream output) throws IOException;
 }
@@ -0,0 +1,15 @@
+package com.gholap.accounts.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+public interface IBulkOnboardingService {
+    /**
+     *
+     * @param input - NDJSON or CSV (name,email,mobileNumber) stream of customers
+     * @param csv - true when the input is CSV, false for NDJSON
+     * @param output - stream receiving one NDJSON result line per input row
+     */
+    void onboard(InputStream input, boolean csv, OutputStream output) throws IOException;
+}
@@ -2,6 +2,16 @@ package com.gholap.accounts.service;
 
 import com.gholap.accounts.dto.CustomerDetailsDto;
 
+import java.util.List;
+
 public interface ICustomerService {
     CustomerDetailsDto fetchCustomerDetails(String mobileNumber,String correlationId);
+
+    /**
+     *
+     * @param mobileNumbers - mobile numbers to resolve in one go
+     * @param correlationId - correlation id forwarded to loans and cards
+     * @return details of every customer found, in the order of the given mobile numbers
+     */
+    List<CustomerDetailsDto> fetchCustomerDetailsBatch(List<String> mobileNumbers, String correlationId);
 }
@@ -5,13 +5,22 @@ import jakarta.validation.constraints.Pattern;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 
+import java.util.List;
+
 @FeignClient(name="cards",fallback = CardsFallback.class)
 public interface CardsFeignClient {
     @GetMapping(value = "/api/fetch",consumes = "application/json")
     public ResponseEntity<CardsDto> fetchCardDetails(
             @RequestHeader("eazybank-correlation-id") String correlationId,
             @RequestParam String mobileNumber);
+
+    @PostMapping(value = "/api/fetch/batch",consumes = "application/json")
+    public ResponseEntity<List<CardsDto>> fetchCardDetailsBatch(
+            @RequestHeader("eazybank-correlation-id") String correlationId,
+            @RequestBody List<String> mobileNumbers);
 }
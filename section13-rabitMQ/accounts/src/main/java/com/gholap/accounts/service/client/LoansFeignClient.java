@@ -5,13 +5,22 @@ import com.gholap.accounts.dto.LoansDto;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 
+import java.util.List;
+
 @FeignClient(name = "loans",fallback =LoansFallback.class)
 public interface LoansFeignClient {
     @GetMapping(value = "/api/fetch",consumes = "application/json")
     public ResponseEntity<LoansDto> fetchLoanDetails(
             @RequestHeader("eazybank-correlation-id") String correlationId,
             @RequestParam String mobileNumber);
+
+    @PostMapping(value = "/api/fetch/batch",consumes = "application/json")
+    public ResponseEntity<List<LoansDto>> fetchLoanDetailsBatch(
+            @RequestHeader("eazybank-correlation-id") String correlationId,
+            @RequestBody List<String> mobileNumbers);
 }
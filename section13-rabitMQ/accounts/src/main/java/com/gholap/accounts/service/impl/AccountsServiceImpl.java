@@ -1,37 +1,54 @@
 package com.gholap.accounts.service.impl;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gholap.accounts.allocator.AccountNumberAllocator;
+import com.gholap.accounts.cache.CustomerCacheInvalidator;
 import com.gholap.accounts.constants.AccountsConstants;
 import com.gholap.accounts.dto.AccountsDto;
-import com.gholap.accounts.dto.AccountsMsgDto;
+import com.gholap.accounts.dto.CustomerAccountDto;
+import com.gholap.accounts.dto.CustomerAccountExportDto;
 import com.gholap.accounts.dto.CustomerDto;
 import com.gholap.accounts.entity.Accounts;
+import com.gholap.accounts.entity.CommunicationOutbox;
 import com.gholap.accounts.entity.Customer;
 import com.gholap.accounts.exception.CustomerAlreadyExistsException;
 import com.gholap.accounts.exception.ResourceNotFoundException;
 import com.gholap.accounts.mapper.AccountsMapper;
 import com.gholap.accounts.mapper.CustomeMapper;
 import com.gholap.accounts.repository.AccountsRepository;
+import com.gholap.accounts.repository.CommunicationOutboxRepository;
 import com.gholap.accounts.repository.CustomerRepository;
 import com.gholap.accounts.service.IAccountsService;
 import lombok.AllArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Optional;
-import java.util.Random;
+import java.util.stream.Stream;
 
 @Service
 @AllArgsConstructor
 public class AccountsServiceImpl implements IAccountsService {
 
     private static final Logger log = LoggerFactory.getLogger(AccountsServiceImpl.class);
+    private static final int EXPORT_FLUSH_INTERVAL = 1000;
     private AccountsRepository accountsRepository;
     private CustomerRepository customerRepository;
-    private final StreamBridge streamBridge;
+    private CommunicationOutboxRepository communicationOutboxRepository;
+    private AccountNumberAllocator accountNumberAllocator;
+    private ObjectMapper objectMapper;
+    private CustomerCacheInvalidator customerCacheInvalidator;
+
     @Override
+    @Transactional
     public void createAccount(CustomerDto customerDto) {
         Customer customer = CustomeMapper.mapToCustomer(customerDto,new Customer());
         Optional<Customer> optionalCustomer =  customerRepository.findByMobileNumber(customerDto.getMobileNumber());
@@ -46,19 +63,23 @@ public class AccountsServiceImpl implements IAccountsService {
         sendCommunication(savedAccount,savedCustomer);
     }
 
+    /**
+     * Stores the communication request in the outbox within the account creation transaction,
+     * CommunicationOutboxRelay publishes it to the broker afterwards.
+     */
     private void sendCommunication(Accounts account, Customer customer){
-        var accountsMsgDto = new AccountsMsgDto(account.getAccountNumber(),customer.getName(),
-                customer.getEmail(),customer.getMobileNumber());
-        log.info("Sending Communication Request for the details: {}",accountsMsgDto);
-        var result = streamBridge.send("sendCommunication-out-0",accountsMsgDto);
-        log.info("Is the Communication request successfully triggered ? : {}",result);
+        var outbox = new CommunicationOutbox();
+        outbox.setAccountNumber(account.getAccountNumber());
+        outbox.setName(customer.getName());
+        outbox.setEmail(customer.getEmail());
+        outbox.setMobileNumber(customer.getMobileNumber());
+        communicationOutboxRepository.save(outbox);
+        log.info("Queued Communication Request for the account number: {}",account.getAccountNumber());
     }
     private Accounts createNewAccount(Customer customer){
         Accounts newAccount= new Accounts();
         newAccount.setCustomerId(customer.getCustomerId());
-        long randomAccountNumber = 1000000000l + new Random().nextInt(900000000);  //create 10 digit acc no
-
-        newAccount.setAccountNumber(randomAccountNumber);
+        newAccount.setAccountNumber(accountNumberAllocator.nextAccountNumber());  //unique 10 digit acc no
         newAccount.setAccountType(AccountsConstants.SAVING);
         newAccount.setBranchAddress(AccountsConstants.ADDRESS);
 //        newAccount.setCreatedAt(LocalDateTime.now());
@@ -67,16 +88,18 @@ public class AccountsServiceImpl implements IAccountsService {
     }
 
     @Override
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = AccountsConstants.CUSTOMER_ACCOUNTS_CACHE, key = "#mobileNumber")
     public CustomerDto fetchAccount(String mobileNumber) {
-       Customer customer = customerRepository.findByMobileNumber(mobileNumber).orElseThrow(
+       CustomerAccountDto customerAccount = customerRepository.findCustomerAccountByMobileNumber(mobileNumber).orElseThrow(
                 ()->new ResourceNotFoundException("Customer","mobileNumber",mobileNumber)
         );
-       Accounts accounts = accountsRepository.findByCustomerId(customer.getCustomerId()).orElseThrow(
-                ()->new ResourceNotFoundException("Account","CustomerId",customer.getCustomerId().toString())
-        );
+       if(customerAccount.accountNumber() == null){
+           throw new ResourceNotFoundException("Account","CustomerId",customerAccount.customerId().toString());
+       }
 
-       CustomerDto customerDto = CustomeMapper.mapToCustomerDto(customer, new CustomerDto());
-       customerDto.setAccountsDto(AccountsMapper.mapToAccountsDto(accounts,new AccountsDto()));
+       CustomerDto customerDto = CustomeMapper.mapToCustomerDto(customerAccount, new CustomerDto());
+       customerDto.setAccountsDto(AccountsMapper.mapToAccountsDto(customerAccount,new AccountsDto()));
 
         return customerDto;
     }
@@ -97,8 +120,13 @@ public class AccountsServiceImpl implements IAccountsService {
             Customer customer = customerRepository.findById(customerId).orElseThrow(
                     ()-> new ResourceNotFoundException("Customer","CustomerId",customerId.toString())
             );
+            String previousMobileNumber = customer.getMobileNumber();
             CustomeMapper.mapToCustomer(customerDto, customer);
             customerRepository.save(customer);
+            customerCacheInvalidator.evict(previousMobileNumber);
+            if(!previousMobileNumber.equals(customer.getMobileNumber())){
+                customerCacheInvalidator.evict(customer.getMobileNumber());
+            }
             isUpdated = true;
         }
         return isUpdated;
@@ -111,21 +139,38 @@ public class AccountsServiceImpl implements IAccountsService {
         );
         accountsRepository.deleteByCustomerId(customer.getCustomerId()); //written by us
         customerRepository.deleteById(customer.getCustomerId());  //taken this from framework
+        customerCacheInvalidator.evict(mobileNumber);
         return true;
     }
 
     @Override
-    public boolean updateCommunicationStatus(Long accountNumber) {
-        boolean isUpdated = false;
-        if(accountNumber!=null){
-            Accounts accounts = accountsRepository.findById(accountNumber).orElseThrow(
-                    () -> new ResourceNotFoundException("Account","AccountNumber",accountNumber.toString())
-            );
-            accounts.setCommunicationSw(true);
-            accountsRepository.save(accounts);
-            isUpdated = true;
+    @Transactional(readOnly = true)
+    public long exportAccounts(OutputStream output) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        long exported = 0;
+        try (Stream<CustomerAccountExportDto> rows = customerRepository.streamAllForExport()) {
+            Iterator<CustomerAccountExportDto> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                writer.write(objectMapper.writeValueAsString(iterator.next()));
+                writer.write('\n');
+                if (++exported % EXPORT_FLUSH_INTERVAL == 0) {
+                    writer.flush();
+                }
+            }
         }
-        return isUpdated;
+        writer.flush();
+        log.info("Exported {} customer accounts", exported);
+        return exported;
+    }
+
+    // communicationSw is not part of the CustomerDto cached by fetchAccount, so the communication
+    // status update below leaves the customerAccounts cache untouched
+    @Override
+    public int updateCommunicationStatus(List<Long> accountNumbers) {
+        if(accountNumbers == null || accountNumbers.isEmpty()){
+            return 0;
+        }
+        return accountsRepository.updateCommunicationSwByAccountNumberIn(accountNumbers);
     }
 
 
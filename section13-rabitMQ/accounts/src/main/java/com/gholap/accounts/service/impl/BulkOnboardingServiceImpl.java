@@ -0,0 +1,191 @@
+package com.gholap.accounts.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gholap.accounts.allocator.AccountNumberAllocator;
+import com.gholap.accounts.constants.AccountsConstants;
+import com.gholap.accounts.dto.BulkOnboardingResultDto;
+import com.gholap.accounts.dto.CustomerDto;
+import com.gholap.accounts.entity.Accounts;
+import com.gholap.accounts.entity.CommunicationOutbox;
+import com.gholap.accounts.entity.Customer;
+import com.gholap.accounts.mapper.CustomeMapper;
+import com.gholap.accounts.repository.CustomerRepository;
+import com.gholap.accounts.service.IBulkOnboardingService;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Streams customers in, works through them in chunks and streams one result per row back out,
+ * so memory use does not grow with the size of the upload. Per chunk there is a single duplicate
+ * check query and one transaction whose Customer, Accounts and outbox inserts are JDBC batched.
+ */
+@Service
+public class BulkOnboardingServiceImpl implements IBulkOnboardingService {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkOnboardingServiceImpl.class);
+
+    private final CustomerRepository customerRepository;
+    private final AccountNumberAllocator accountNumberAllocator;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+
+    @Value("${bulk-onboarding.chunk-size:500}")
+    private int chunkSize;
+
+    public BulkOnboardingServiceImpl(CustomerRepository customerRepository, AccountNumberAllocator accountNumberAllocator,
+                                     EntityManager entityManager, PlatformTransactionManager transactionManager,
+                                     ObjectMapper objectMapper, Validator validator) {
+        this.customerRepository = customerRepository;
+        this.accountNumberAllocator = accountNumberAllocator;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+    }
+
+    @Override
+    public void onboard(InputStream input, boolean csv, OutputStream output) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        List<BulkOnboardingResultDto> results = new ArrayList<>(chunkSize);
+        Map<Long, CustomerDto> chunk = new LinkedHashMap<>();
+        long lineNumber = 0;
+        long created = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank() || (csv && lineNumber == 1 && line.toLowerCase(Locale.ROOT).startsWith("name,"))) {
+                continue;
+            }
+            CustomerDto customerDto = parse(line, csv, lineNumber, results);
+            if (customerDto != null) {
+                chunk.put(lineNumber, customerDto);
+            }
+            if (chunk.size() == chunkSize) {
+                created += processChunk(chunk, results);
+                chunk.clear();
+            }
+            if (results.size() >= chunkSize) {
+                write(results, writer);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            created += processChunk(chunk, results);
+        }
+        write(results, writer);
+        log.info("Bulk onboarding finished, {} customers created from {} lines", created, lineNumber);
+    }
+
+    private CustomerDto parse(String line, boolean csv, long lineNumber, List<BulkOnboardingResultDto> results) {
+        CustomerDto customerDto;
+        try {
+            customerDto = csv ? parseCsv(line) : objectMapper.readValue(line, CustomerDto.class);
+        } catch (IOException | IllegalArgumentException ex) {
+            results.add(new BulkOnboardingResultDto(lineNumber, null, AccountsConstants.BULK_STATUS_INVALID, null, "Unreadable row: " + ex.getMessage()));
+            return null;
+        }
+        Set<ConstraintViolation<CustomerDto>> violations = validator.validate(customerDto);
+        if (!violations.isEmpty()) {
+            String message = violations.stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .collect(Collectors.joining(", "));
+            results.add(new BulkOnboardingResultDto(lineNumber, customerDto.getMobileNumber(), AccountsConstants.BULK_STATUS_INVALID, null, message));
+            return null;
+        }
+        return customerDto;
+    }
+
+    private static CustomerDto parseCsv(String line) {
+        String[] columns = line.split(",", -1);
+        if (columns.length != 3) {
+            throw new IllegalArgumentException("expected name,email,mobileNumber");
+        }
+        CustomerDto customerDto = new CustomerDto();
+        customerDto.setName(columns[0].trim());
+        customerDto.setEmail(columns[1].trim());
+        customerDto.setMobileNumber(columns[2].trim());
+        return customerDto;
+    }
+
+    private int processChunk(Map<Long, CustomerDto> chunk, List<BulkOnboardingResultDto> results) {
+        Set<String> mobileNumbers = chunk.values().stream().map(CustomerDto::getMobileNumber).collect(Collectors.toSet());
+        Set<String> taken = customerRepository.findByMobileNumberIn(mobileNumbers).stream()
+                .map(Customer::getMobileNumber)
+                .collect(Collectors.toCollection(HashSet::new));
+
+        Map<Long, Customer> toCreate = new LinkedHashMap<>();
+        for (Map.Entry<Long, CustomerDto> row : chunk.entrySet()) {
+            String mobileNumber = row.getValue().getMobileNumber();
+            if (!taken.add(mobileNumber)) {
+                results.add(new BulkOnboardingResultDto(row.getKey(), mobileNumber, AccountsConstants.BULK_STATUS_DUPLICATE, null,
+                        "Customer Already registered with given mobile number"));
+                continue;
+            }
+            toCreate.put(row.getKey(), CustomeMapper.mapToCustomer(row.getValue(), new Customer()));
+        }
+        if (toCreate.isEmpty()) {
+            return 0;
+        }
+        try {
+            Map<Long, Long> accountNumbers = transactionTemplate.execute(status -> insert(toCreate));
+            toCreate.forEach((lineNumber, customer) -> results.add(new BulkOnboardingResultDto(lineNumber,
+                    customer.getMobileNumber(), AccountsConstants.BULK_STATUS_CREATED, accountNumbers.get(lineNumber), null)));
+            return toCreate.size();
+        } catch (RuntimeException ex) {
+            log.error("Bulk onboarding chunk of {} customers failed", toCreate.size(), ex);
+            toCreate.forEach((lineNumber, customer) -> results.add(new BulkOnboardingResultDto(lineNumber,
+                    customer.getMobileNumber(), AccountsConstants.BULK_STATUS_FAILED, null, ex.getMessage())));
+            return 0;
+        }
+    }
+
+    private Map<Long, Long> insert(Map<Long, Customer> toCreate) {
+        Map<Long, Long> accountNumbers = new HashMap<>();
+        // persist instead of save: Accounts has an assigned id and save would merge, i.e. select first
+        toCreate.values().forEach(entityManager::persist);
+        for (Map.Entry<Long, Customer> row : toCreate.entrySet()) {
+            Customer customer = row.getValue();
+            Accounts newAccount = new Accounts();
+            newAccount.setCustomerId(customer.getCustomerId());
+            newAccount.setAccountNumber(accountNumberAllocator.nextAccountNumber());
+            newAccount.setAccountType(AccountsConstants.SAVING);
+            newAccount.setBranchAddress(AccountsConstants.ADDRESS);
+            entityManager.persist(newAccount);
+
+            CommunicationOutbox outbox = new CommunicationOutbox();
+            outbox.setAccountNumber(newAccount.getAccountNumber());
+            outbox.setName(customer.getName());
+            outbox.setEmail(customer.getEmail());
+            outbox.setMobileNumber(customer.getMobileNumber());
+            entityManager.persist(outbox);
+            accountNumbers.put(row.getKey(), newAccount.getAccountNumber());
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return accountNumbers;
+    }
+
+    private void write(List<BulkOnboardingResultDto> results, Writer writer) throws IOException {
+        results.sort(Comparator.comparingLong(BulkOnboardingResultDto::line));
+        for (BulkOnboardingResultDto result : results) {
+            writer.write(objectMapper.writeValueAsString(result));
+            writer.write('\n');
+        }
+        writer.flush();
+        results.clear();
+    }
+}
@@ -1,12 +1,15 @@
 package com.gholap.accounts.service.impl;
 
+import com.gholap.accounts.config.CustomerDetailsProperties;
 import com.gholap.accounts.dto.AccountsDto;
 import com.gholap.accounts.dto.CardsDto;
+import com.gholap.accounts.dto.CustomerAccountDto;
 import com.gholap.accounts.dto.CustomerDetailsDto;
 import com.gholap.accounts.dto.LoansDto;
 import com.gholap.accounts.entity.Accounts;
 import com.gholap.accounts.entity.Customer;
 import com.gholap.accounts.exception.ResourceNotFoundException;
+import com.gholap.accounts.exception.UpstreamTimeoutException;
 import com.gholap.accounts.mapper.AccountsMapper;
 import com.gholap.accounts.mapper.CustomeMapper;
 import com.gholap.accounts.repository.AccountsRepository;
@@ -15,29 +18,142 @@ import com.gholap.accounts.service.ICustomerService;
 import com.gholap.accounts.service.client.CardsFeignClient;
 import com.gholap.accounts.service.client.LoansFeignClient;
 import lombok.AllArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
 @Service
 @AllArgsConstructor
 public class CustomerServiceImpl implements ICustomerService {
 
+    private static final Logger log = LoggerFactory.getLogger(CustomerServiceImpl.class);
+
     private AccountsRepository accountsRepository;
     private CustomerRepository customerRepository;
     private CardsFeignClient cardsFeignClient;
     private LoansFeignClient loansFeignClient;
+    private CustomerDetailsProperties customerDetailsProperties;
+    private ThreadPoolTaskExecutor customerDetailsExecutor;
 
     @Override
     public CustomerDetailsDto fetchCustomerDetails(String mobileNumber, String correlationId) {
-        Customer customer = customerRepository.findByMobileNumber(mobileNumber).orElseThrow(
+        if (!customerDetailsProperties.isParallel()) {
+            return fetchCustomerDetailsSequentially(mobileNumber, correlationId);
+        }
+        long timeoutMs = customerDetailsProperties.getTimeout().toMillis();
+
+        CompletableFuture<CustomerDetailsDto> customerFuture = CompletableFuture
+                .supplyAsync(() -> fetchCustomerAndAccount(mobileNumber), customerDetailsExecutor)
+                .orTimeout(timeoutMs, TimeUnit.MILLISECONDS);
+        // loans and cards keep the LoansFallback/CardsFallback semantics: a timeout or failure
+        // simply leaves that section of the response empty
+        CompletableFuture<LoansDto> loansFuture = fetchOptional("loans",
+                () -> loansFeignClient.fetchLoanDetails(correlationId, mobileNumber), timeoutMs);
+        CompletableFuture<CardsDto> cardsFuture = fetchOptional("cards",
+                () -> cardsFeignClient.fetchCardDetails(correlationId, mobileNumber), timeoutMs);
+
+        CustomerDetailsDto customerDetailsDto;
+        try {
+            customerDetailsDto = customerFuture.join();
+        } catch (CompletionException ex) {
+            // the loans and cards legs are left to finish on their own: they cannot be interrupted
+            // through the future, and each is already bounded by its Feign timeouts and fallback
+            if (ex.getCause() instanceof TimeoutException) {
+                throw new UpstreamTimeoutException("Customer","mobileNumber",mobileNumber);
+            }
+            if (ex.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw ex;
+        }
+        customerDetailsDto.setLoansDto(loansFuture.join());
+        customerDetailsDto.setCardsDto(cardsFuture.join());
+        return customerDetailsDto;
+    }
+
+    @Override
+    public List<CustomerDetailsDto> fetchCustomerDetailsBatch(List<String> mobileNumbers, String correlationId) {
+        List<String> distinctMobileNumbers = mobileNumbers.stream().distinct().toList();
+        long timeoutMs = customerDetailsProperties.getTimeout().toMillis();
+
+        CompletableFuture<List<LoansDto>> loansFuture = fetchOptional("loans",
+                () -> loansFeignClient.fetchLoanDetailsBatch(correlationId, distinctMobileNumbers), timeoutMs);
+        CompletableFuture<List<CardsDto>> cardsFuture = fetchOptional("cards",
+                () -> cardsFeignClient.fetchCardDetailsBatch(correlationId, distinctMobileNumbers), timeoutMs);
+
+        List<Customer> customers = customerRepository.findByMobileNumberIn(distinctMobileNumbers);
+        Map<Long, Accounts> accountsByCustomerId = accountsRepository
+                .findByCustomerIdIn(customers.stream().map(Customer::getCustomerId).toList())
+                .stream().collect(Collectors.toMap(Accounts::getCustomerId, Function.identity(), (first, second) -> first));
+        Map<String, LoansDto> loansByMobileNumber = indexByMobileNumber(loansFuture.join(), LoansDto::getMobileNumber);
+        Map<String, CardsDto> cardsByMobileNumber = indexByMobileNumber(cardsFuture.join(), CardsDto::getMobileNumber);
+
+        Map<String, CustomerDetailsDto> detailsByMobileNumber = new HashMap<>();
+        for (Customer customer : customers) {
+            Accounts accounts = accountsByCustomerId.get(customer.getCustomerId());
+            if (accounts == null) {
+                continue;
+            }
+            CustomerDetailsDto customerDetailsDto = CustomeMapper.mapToCustomerDetailsDto(customer, new CustomerDetailsDto());
+            customerDetailsDto.setAccountsDto(AccountsMapper.mapToAccountsDto(accounts, new AccountsDto()));
+            customerDetailsDto.setLoansDto(loansByMobileNumber.get(customer.getMobileNumber()));
+            customerDetailsDto.setCardsDto(cardsByMobileNumber.get(customer.getMobileNumber()));
+            detailsByMobileNumber.put(customer.getMobileNumber(), customerDetailsDto);
+        }
+        return distinctMobileNumbers.stream()
+                .map(detailsByMobileNumber::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    private static <T> Map<String, T> indexByMobileNumber(List<T> dtos, Function<T, String> mobileNumber) {
+        if (dtos == null) {
+            return Map.of();
+        }
+        return dtos.stream().collect(Collectors.toMap(mobileNumber, Function.identity(), (first, second) -> first));
+    }
+
+    private <T> CompletableFuture<T> fetchOptional(String dependency, Supplier<ResponseEntity<T>> call, long timeoutMs) {
+        return CompletableFuture.supplyAsync(() -> {
+                    ResponseEntity<T> responseEntity = call.get();
+                    return null != responseEntity ? responseEntity.getBody() : null;
+                }, customerDetailsExecutor)
+                .completeOnTimeout(null, timeoutMs, TimeUnit.MILLISECONDS)
+                .exceptionally(ex -> {
+                    log.warn("Unable to fetch {} details, continuing without them: {}", dependency, ex.getMessage());
+                    return null;
+                });
+    }
+
+    private CustomerDetailsDto fetchCustomerAndAccount(String mobileNumber) {
+        CustomerAccountDto customerAccount = customerRepository.findCustomerAccountByMobileNumber(mobileNumber).orElseThrow(
                 ()->new ResourceNotFoundException("Customer","mobileNumber",mobileNumber)
         );
-        Accounts accounts = accountsRepository.findByCustomerId(customer.getCustomerId()).orElseThrow(
-                ()->new ResourceNotFoundException("Account","CustomerId",customer.getCustomerId().toString())
-        );
+        if(customerAccount.accountNumber() == null){
+            throw new ResourceNotFoundException("Account","CustomerId",customerAccount.customerId().toString());
+        }
+
+       CustomerDetailsDto customerDetailsDto = CustomeMapper.mapToCustomerDetailsDto(customerAccount,new CustomerDetailsDto());
+        customerDetailsDto.setAccountsDto(AccountsMapper.mapToAccountsDto(customerAccount,new AccountsDto()));
+        return customerDetailsDto;
+    }
 
-       CustomerDetailsDto customerDetailsDto = CustomeMapper.mapToCustomerDetailsDto(customer,new CustomerDetailsDto());
-        customerDetailsDto.setAccountsDto(AccountsMapper.mapToAccountsDto(accounts,new AccountsDto()));
+    private CustomerDetailsDto fetchCustomerDetailsSequentially(String mobileNumber, String correlationId) {
+        CustomerDetailsDto customerDetailsDto = fetchCustomerAndAccount(mobileNumber);
 
         ResponseEntity<LoansDto> loansDtoResponseEntity = loansFeignClient.fetchLoanDetails(correlationId,mobileNumber);
         if(null != loansDtoResponseEntity){
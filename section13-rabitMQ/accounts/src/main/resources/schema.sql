@@ -1,5 +1,9 @@
+CREATE SEQUENCE IF NOT EXISTS `customer_seq` START WITH 1 INCREMENT BY 50;
+
+CREATE SEQUENCE IF NOT EXISTS `communication_outbox_seq` START WITH 1 INCREMENT BY 50;
+
 CREATE TABLE IF NOT EXISTS `customer` (
-  `customer_id` int AUTO_INCREMENT  PRIMARY KEY,
+  `customer_id` int PRIMARY KEY,
   `name` varchar(100) NOT NULL,
   `email` varchar(100) NOT NULL,
   `mobile_number` varchar(20) NOT NULL,
@@ -11,7 +15,7 @@ CREATE TABLE IF NOT EXISTS `customer` (
 
 CREATE TABLE IF NOT EXISTS `accounts` (
   `customer_id` int NOT NULL,
-   `account_number` int AUTO_INCREMENT  PRIMARY KEY,
+   `account_number` bigint PRIMARY KEY,
   `account_type` varchar(100) NOT NULL,
   `branch_address` varchar(200) NOT NULL,
   `communication_sw` BOOLEAN,
@@ -19,4 +23,25 @@ CREATE TABLE IF NOT EXISTS `accounts` (
    `created_by` varchar(20) NOT NULL,
    `updated_at` date DEFAULT NULL,
     `updated_by` varchar(20) DEFAULT NULL
-);
\ No newline at end of file
+);
+
+CREATE TABLE IF NOT EXISTS `communication_outbox` (
+  `outbox_id` int PRIMARY KEY,
+  `account_number` bigint NOT NULL,
+  `name` varchar(100) NOT NULL,
+  `email` varchar(100) NOT NULL,
+  `mobile_number` varchar(20) NOT NULL,
+  `attempts` int NOT NULL DEFAULT 0,
+  `parked` boolean NOT NULL DEFAULT false,
+  `claimed_until` timestamp DEFAULT NULL,
+  `created_at` date NOT NULL,
+  `created_by` varchar(20) NOT NULL,
+  `updated_at` date DEFAULT NULL,
+    `updated_by` varchar(20) DEFAULT NULL
+);
+
+
+CREATE TABLE IF NOT EXISTS `account_number_block` (
+  `block_name` varchar(50) PRIMARY KEY,
+  `next_value` bigint NOT NULL
+);
@@ -0,0 +1,84 @@
+package com.gholap.accounts.benchmark;
+
+import com.gholap.accounts.allocator.AccountNumberAllocator;
+import com.gholap.accounts.entity.AccountNumberBlock;
+import com.gholap.accounts.repository.AccountNumberBlockRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Throughput of account number allocation with 8 threads competing. The block repository is
+ * stubbed with a 1ms round trip, so small blocks show the cost of the serialised refill while
+ * larger blocks should approach the in-memory atomic increment. {@code randomPerCall} is the
+ * previous {@code new Random()} per account, which is fast but gives no uniqueness guarantee.
+ * <p>
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.gholap.accounts.benchmark.AccountNumberAllocatorBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class AccountNumberAllocatorBenchmark {
+
+	@Param({"1", "100", "1000"})
+	public long blockSize;
+
+	private AccountNumberAllocator allocator;
+
+	@Setup
+	public void setUp() {
+		AccountNumberBlock row = new AccountNumberBlock("accounts", 2_000_000_000L);
+		AccountNumberBlockRepository repository = mock(AccountNumberBlockRepository.class);
+		when(repository.findForUpdate(anyString())).thenAnswer(invocation -> {
+			LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+			return Optional.of(row);
+		});
+		when(repository.saveAndFlush(any(AccountNumberBlock.class))).thenAnswer(invocation -> invocation.getArgument(0));
+		allocator = new AccountNumberAllocator(repository, mock(PlatformTransactionManager.class),
+				blockSize, 2_000_000_000L);
+	}
+
+	@Benchmark
+	public long blockAllocator() {
+		return allocator.nextAccountNumber();
+	}
+
+	@Benchmark
+	public long randomPerCall() {
+		return 1000000000L + new Random().nextInt(900000000);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+				.include(AccountNumberAllocatorBenchmark.class.getSimpleName())
+				.build()).run();
+	}
+}
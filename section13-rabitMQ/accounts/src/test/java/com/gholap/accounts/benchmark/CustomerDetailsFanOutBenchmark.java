@@ -0,0 +1,107 @@
+package com.gholap.accounts.benchmark;
+
+import com.gholap.accounts.config.CustomerDetailsProperties;
+import com.gholap.accounts.dto.CardsDto;
+import com.gholap.accounts.dto.CustomerAccountDto;
+import com.gholap.accounts.dto.CustomerDetailsDto;
+import com.gholap.accounts.dto.LoansDto;
+import com.gholap.accounts.repository.AccountsRepository;
+import com.gholap.accounts.repository.CustomerRepository;
+import com.gholap.accounts.service.client.CardsFeignClient;
+import com.gholap.accounts.service.client.LoansFeignClient;
+import com.gholap.accounts.service.impl.CustomerServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * End-to-end latency of {@code fetchCustomerDetails} against stubbed dependencies with fixed
+ * latencies (db 10ms, loans 40ms, cards 60ms). The sequential path should report roughly the
+ * sum (~110ms), the parallel path roughly the slowest dependency (~60ms).
+ * <p>
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.gholap.accounts.benchmark.CustomerDetailsFanOutBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CustomerDetailsFanOutBenchmark {
+
+	private static final String MOBILE_NUMBER = "9876543210";
+
+	@Param({"false", "true"})
+	public boolean parallel;
+
+	private ThreadPoolTaskExecutor executor;
+	private CustomerServiceImpl customerService;
+
+	@Setup
+	public void setUp() {
+		CustomerRepository customerRepository = mock(CustomerRepository.class);
+		LoansFeignClient loansFeignClient = mock(LoansFeignClient.class);
+		CardsFeignClient cardsFeignClient = mock(CardsFeignClient.class);
+		when(customerRepository.findCustomerAccountByMobileNumber(MOBILE_NUMBER)).thenAnswer(invocation -> {
+			Thread.sleep(10);
+			return Optional.of(new CustomerAccountDto(1L, "Jane", "jane@example.com", MOBILE_NUMBER,
+					1001L, "Savings", "Main St"));
+		});
+		when(loansFeignClient.fetchLoanDetails(anyString(), anyString())).thenAnswer(invocation -> {
+			Thread.sleep(40);
+			return ResponseEntity.ok(new LoansDto());
+		});
+		when(cardsFeignClient.fetchCardDetails(anyString(), anyString())).thenAnswer(invocation -> {
+			Thread.sleep(60);
+			return ResponseEntity.ok(new CardsDto());
+		});
+
+		CustomerDetailsProperties properties = new CustomerDetailsProperties();
+		properties.setParallel(parallel);
+		properties.setTimeout(Duration.ofSeconds(1));
+		executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(properties.getPoolSize());
+		executor.initialize();
+		customerService = new CustomerServiceImpl(mock(AccountsRepository.class), customerRepository,
+				cardsFeignClient, loansFeignClient, properties, executor);
+	}
+
+	@TearDown
+	public void tearDown() {
+		executor.shutdown();
+	}
+
+	@Benchmark
+	public CustomerDetailsDto fetchCustomerDetails() {
+		return customerService.fetchCustomerDetails(MOBILE_NUMBER, "bench");
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+				.include(CustomerDetailsFanOutBenchmark.class.getSimpleName())
+				.build()).run();
+	}
+}
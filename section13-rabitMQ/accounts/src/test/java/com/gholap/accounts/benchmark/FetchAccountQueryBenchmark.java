@@ -0,0 +1,141 @@
+package com.gholap.accounts.benchmark;
+
+import com.gholap.accounts.AccountsApplication;
+import com.gholap.accounts.dto.AccountsDto;
+import com.gholap.accounts.dto.CustomerAccountDto;
+import com.gholap.accounts.dto.CustomerDto;
+import com.gholap.accounts.entity.Accounts;
+import com.gholap.accounts.entity.Customer;
+import com.gholap.accounts.mapper.AccountsMapper;
+import com.gholap.accounts.mapper.CustomeMapper;
+import com.gholap.accounts.repository.AccountsRepository;
+import com.gholap.accounts.repository.CustomerRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the fetchAccount read paths against the in-memory H2 database: the single projection
+ * query used today with the previous findByMobileNumber + findByCustomerId pair loading two
+ * managed entities. The second-level cache is switched off so both paths hit the database.
+ * <p>
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.gholap.accounts.benchmark.FetchAccountQueryBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FetchAccountQueryBenchmark {
+
+	private static final int CUSTOMERS = 10_000;
+
+	private ConfigurableApplicationContext context;
+	private CustomerRepository customerRepository;
+	private EntityManager entityManager;
+	private TransactionTemplate readOnlyTransaction;
+
+	@Setup
+	public void setUp() {
+		context = new SpringApplicationBuilder(AccountsApplication.class)
+				.web(WebApplicationType.NONE)
+				.properties("spring.config.import=",
+						"spring.cloud.config.enabled=false",
+						"eureka.client.enabled=false",
+						"spring.jpa.show-sql=false",
+						"spring.jpa.properties.hibernate.generate_statistics=false",
+						"spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+						"communication.outbox.poll-interval=3600000")
+				.run();
+		customerRepository = context.getBean(CustomerRepository.class);
+		AccountsRepository accountsRepository = context.getBean(AccountsRepository.class);
+		entityManager = SharedEntityManagerCreator.createSharedEntityManager(context.getBean(EntityManagerFactory.class));
+		readOnlyTransaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+		readOnlyTransaction.setReadOnly(true);
+
+		new TransactionTemplate(context.getBean(PlatformTransactionManager.class)).executeWithoutResult(status -> {
+			for (int i = 0; i < CUSTOMERS; i++) {
+				Customer customer = new Customer();
+				customer.setName("Customer " + i);
+				customer.setEmail("customer" + i + "@example.com");
+				customer.setMobileNumber(mobileNumber(i));
+				customer = customerRepository.save(customer);
+				Accounts accounts = new Accounts();
+				accounts.setCustomerId(customer.getCustomerId());
+				accounts.setAccountNumber(3_000_000_000L + i);
+				accounts.setAccountType("Savings");
+				accounts.setBranchAddress("123 Main Street, New York");
+				accounts.setCommunicationSw(false);
+				accountsRepository.save(accounts);
+			}
+		});
+	}
+
+	@TearDown
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public CustomerDto projection() {
+		String mobileNumber = mobileNumber(ThreadLocalRandom.current().nextInt(CUSTOMERS));
+		return readOnlyTransaction.execute(status -> {
+			CustomerAccountDto customerAccount = customerRepository.findCustomerAccountByMobileNumber(mobileNumber).orElseThrow();
+			CustomerDto customerDto = CustomeMapper.mapToCustomerDto(customerAccount, new CustomerDto());
+			customerDto.setAccountsDto(AccountsMapper.mapToAccountsDto(customerAccount, new AccountsDto()));
+			return customerDto;
+		});
+	}
+
+	@Benchmark
+	public CustomerDto twoEntityQueries() {
+		String mobileNumber = mobileNumber(ThreadLocalRandom.current().nextInt(CUSTOMERS));
+		return readOnlyTransaction.execute(status -> {
+			Customer customer = entityManager
+					.createQuery("select c from Customer c where c.mobileNumber = :mobileNumber", Customer.class)
+					.setParameter("mobileNumber", mobileNumber)
+					.getSingleResult();
+			Accounts accounts = entityManager
+					.createQuery("select a from Accounts a where a.customerId = :customerId", Accounts.class)
+					.setParameter("customerId", customer.getCustomerId())
+					.getSingleResult();
+			CustomerDto customerDto = CustomeMapper.mapToCustomerDto(customer, new CustomerDto());
+			customerDto.setAccountsDto(AccountsMapper.mapToAccountsDto(accounts, new AccountsDto()));
+			return customerDto;
+		});
+	}
+
+	private static String mobileNumber(int i) {
+		return String.valueOf(7_000_000_000L + i);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+				.include(FetchAccountQueryBenchmark.class.getSimpleName())
+				.build()).run();
+	}
+}
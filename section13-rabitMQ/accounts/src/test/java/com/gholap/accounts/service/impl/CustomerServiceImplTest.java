@@ -0,0 +1,113 @@
+package com.gholap.accounts.service.impl;
+
+import com.gholap.accounts.config.CustomerDetailsProperties;
+import com.gholap.accounts.dto.CardsDto;
+import com.gholap.accounts.dto.CustomerAccountDto;
+import com.gholap.accounts.dto.CustomerDetailsDto;
+import com.gholap.accounts.dto.LoansDto;
+import com.gholap.accounts.exception.ResourceNotFoundException;
+import com.gholap.accounts.exception.UpstreamTimeoutException;
+import com.gholap.accounts.repository.AccountsRepository;
+import com.gholap.accounts.repository.CustomerRepository;
+import com.gholap.accounts.service.client.CardsFeignClient;
+import com.gholap.accounts.service.client.LoansFeignClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CustomerServiceImplTest {
+
+	private static final String MOBILE_NUMBER = "9876543210";
+
+	private final AccountsRepository accountsRepository = mock(AccountsRepository.class);
+	private final CustomerRepository customerRepository = mock(CustomerRepository.class);
+	private final CardsFeignClient cardsFeignClient = mock(CardsFeignClient.class);
+	private final LoansFeignClient loansFeignClient = mock(LoansFeignClient.class);
+	private final CustomerDetailsProperties properties = new CustomerDetailsProperties();
+	private ThreadPoolTaskExecutor executor;
+	private CustomerServiceImpl customerService;
+
+	@BeforeEach
+	void setUp() {
+		properties.setTimeout(Duration.ofMillis(200));
+		executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(4);
+		executor.initialize();
+		customerService = new CustomerServiceImpl(accountsRepository, customerRepository, cardsFeignClient,
+				loansFeignClient, properties, executor);
+	}
+
+	@AfterEach
+	void tearDown() {
+		executor.shutdown();
+	}
+
+	@Test
+	void mergesCustomerLoansAndCards() {
+		givenCustomer();
+		LoansDto loansDto = new LoansDto();
+		loansDto.setLoanNumber("L1");
+		CardsDto cardsDto = new CardsDto();
+		cardsDto.setCardNumber("C1");
+		when(loansFeignClient.fetchLoanDetails(anyString(), anyString())).thenReturn(ResponseEntity.ok(loansDto));
+		when(cardsFeignClient.fetchCardDetails(anyString(), anyString())).thenReturn(ResponseEntity.ok(cardsDto));
+
+		CustomerDetailsDto details = customerService.fetchCustomerDetails(MOBILE_NUMBER, "corr-1");
+
+		assertThat(details.getName()).isEqualTo("Jane");
+		assertThat(details.getAccountsDto().getAccountNumber()).isEqualTo(1001L);
+		assertThat(details.getLoansDto().getLoanNumber()).isEqualTo("L1");
+		assertThat(details.getCardsDto().getCardNumber()).isEqualTo("C1");
+	}
+
+	@Test
+	void failingOrSlowDependencyLeavesItsSectionEmpty() {
+		givenCustomer();
+		when(loansFeignClient.fetchLoanDetails(anyString(), anyString())).thenThrow(new IllegalStateException("boom"));
+		when(cardsFeignClient.fetchCardDetails(anyString(), anyString())).thenAnswer(invocation -> {
+			Thread.sleep(1000);
+			return ResponseEntity.ok(new CardsDto());
+		});
+
+		CustomerDetailsDto details = customerService.fetchCustomerDetails(MOBILE_NUMBER, "corr-1");
+
+		assertThat(details.getAccountsDto()).isNotNull();
+		assertThat(details.getLoansDto()).isNull();
+		assertThat(details.getCardsDto()).isNull();
+	}
+
+	@Test
+	void slowCustomerLookupIsReportedAsUpstreamTimeout() {
+		when(customerRepository.findCustomerAccountByMobileNumber(MOBILE_NUMBER)).thenAnswer(invocation -> {
+			Thread.sleep(1000);
+			return Optional.empty();
+		});
+
+		assertThatThrownBy(() -> customerService.fetchCustomerDetails(MOBILE_NUMBER, "corr-1"))
+				.isInstanceOf(UpstreamTimeoutException.class);
+	}
+
+	@Test
+	void missingCustomerIsReportedAsNotFound() {
+		when(customerRepository.findCustomerAccountByMobileNumber(MOBILE_NUMBER)).thenReturn(Optional.empty());
+
+		assertThatThrownBy(() -> customerService.fetchCustomerDetails(MOBILE_NUMBER, "corr-1"))
+				.isInstanceOf(ResourceNotFoundException.class);
+	}
+
+	private void givenCustomer() {
+		when(customerRepository.findCustomerAccountByMobileNumber(MOBILE_NUMBER)).thenReturn(Optional.of(
+				new CustomerAccountDto(1L, "Jane", "jane@example.com", MOBILE_NUMBER, 1001L, "Savings", "Main St")));
+	}
+}
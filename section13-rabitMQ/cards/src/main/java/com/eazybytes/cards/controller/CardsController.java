@@ -13,7 +13,9 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -25,6 +27,8 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 /**
  * @author Eazy Bytes
  */
@@ -114,6 +118,36 @@ public class CardsController {
         return ResponseEntity.status(HttpStatus.OK).body(cardsDto);
     }
 
+    @Operation(
+            summary = "Fetch Card Details in Batch REST API",
+            description = "REST API to fetch card details for a list of mobile numbers"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "HTTP Status OK"
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "HTTP Status Internal Server Error",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDto.class)
+                    )
+            )
+    }
+    )
+    @PostMapping("/fetch/batch")
+    public ResponseEntity<List<CardsDto>> fetchCardDetailsBatch(@RequestHeader("eazybank-correlation-id") String correlationId,
+                                                     @RequestBody
+                                                     @NotEmpty(message = "Mobile numbers can not be empty")
+                                                     @Size(max = 500, message = "At most 500 mobile numbers can be fetched at once")
+                                                     List<@Pattern(regexp="(^$|[0-9]{10})",message = "Mobile number must be 10 digits") String> mobileNumbers) {
+        logger.debug("fetchCardDetailsBatch method start for {} mobile numbers", mobileNumbers.size());
+        List<CardsDto> cardsDtos = iCardsService.fetchCards(mobileNumbers);
+        logger.debug("fetchCardDetailsBatch method end");
+        return ResponseEntity.status(HttpStatus.OK).body(cardsDtos);
+    }
+
     @Operation(
             summary = "Update Card Details REST API",
             description = "REST API to update card details based on a card number"
@@ -2,9 +2,16 @@ package com.eazybytes.cards.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@NaturalIdCache
 @Getter
 @Setter
 @ToString
@@ -17,6 +24,7 @@ public class Cards extends BaseEntity {
 	@GenericGenerator(name = "native",strategy = "native")
 	private Long cardId;
 
+	@NaturalId(mutable = true)
 	private String mobileNumber;
 
 	private String cardNumber;
@@ -0,0 +1,14 @@
+package com.eazybytes.cards.repository;
+
+import com.eazybytes.cards.entity.Cards;
+
+import java.util.Optional;
+
+public interface CardsNaturalIdRepository {
+
+    /**
+     * Loads the card through its mobileNumber natural id, so repeated lookups are answered
+     * from the natural-id and second-level caches instead of running a query.
+     */
+    Optional<Cards> findByMobileNumber(String mobileNumber);
+}
@@ -0,0 +1,25 @@
+package com.eazybytes.cards.repository;
+
+import com.eazybytes.cards.entity.Cards;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+public class CardsNaturalIdRepositoryImpl implements CardsNaturalIdRepository {
+
+    private final EntityManager entityManager;
+
+    public CardsNaturalIdRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Cards> findByMobileNumber(String mobileNumber) {
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(Cards.class)
+                .loadOptional(mobileNumber);
+    }
+}
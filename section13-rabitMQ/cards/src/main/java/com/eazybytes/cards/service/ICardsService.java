@@ -2,6 +2,8 @@ package com.eazybytes.cards.service;
 
 import com.eazybytes.cards.dto.CardsDto;
 
+import java.util.List;
+
 public interface ICardsService {
 
     /**
@@ -17,6 +19,13 @@ public interface ICardsService {
      */
     CardsDto fetchCard(String mobileNumber);
 
+    /**
+     *
+     * @param mobileNumbers - Input mobile Numbers
+     *  @return Card Details of every given mobileNumber that has a card, unknown numbers are skipped
+     */
+    List<CardsDto> fetchCards(List<String> mobileNumbers);
+
     /**
      *
      * @param cardsDto - CardsDto Object
@@ -11,6 +11,7 @@ import com.eazybytes.cards.service.ICardsService;
 import lombok.AllArgsConstructor;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.Random;
 
@@ -61,6 +62,18 @@ public class CardsServiceImpl implements ICardsService {
         return CardsMapper.mapToCardsDto(cards, new CardsDto());
     }
 
+    /**
+     *
+     * @param mobileNumbers - Input mobile Numbers
+     * @return Card Details of every given mobileNumber that has a card
+     */
+    @Override
+    public List<CardsDto> fetchCards(List<String> mobileNumbers) {
+        return cardsRepository.findByMobileNumberIn(mobileNumbers).stream()
+                .map(cards -> CardsMapper.mapToCardsDto(cards, new CardsDto()))
+                .toList();
+    }
+
     /**
      *
      * @param cardsDto - CardsDto Object
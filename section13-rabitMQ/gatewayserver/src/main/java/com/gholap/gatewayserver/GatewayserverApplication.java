@@ -1,63 +1,107 @@
 package com.gholap.gatewayserver;
 
+import com.gholap.gatewayserver.filter.EdgeCacheGatewayFilterFactory;
+import com.gholap.gatewayserver.filter.FilterUtility;
+import com.gholap.gatewayserver.filter.HashRoutingGatewayFilterFactory;
+import com.gholap.gatewayserver.filter.MirrorGatewayFilterFactory;
+import com.gholap.gatewayserver.filter.RetryBudgetGatewayFilterFactory;
+import com.gholap.gatewayserver.filter.SingleFlightGatewayFilterFactory;
+import com.gholap.gatewayserver.loadbalancer.PeakEwmaLoadBalancerConfiguration;
+import com.gholap.gatewayserver.ratelimit.HybridRateLimiter;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
 import io.github.resilience4j.timelimiter.TimeLimiterConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.circuitbreaker.resilience4j.ReactiveResilience4JCircuitBreakerFactory;
 import org.springframework.cloud.circuitbreaker.resilience4j.Resilience4JConfigBuilder;
 import org.springframework.cloud.client.circuitbreaker.Customizer;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.RewritePathGatewayFilterFactory;
 import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
-import org.springframework.cloud.gateway.filter.ratelimit.RedisRateLimiter;
 import org.springframework.cloud.gateway.route.RouteLocator;
 import org.springframework.cloud.gateway.route.builder.RouteLocatorBuilder;
 import org.springframework.context.annotation.Bean;
-import org.springframework.http.HttpMethod;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import reactor.core.publisher.Hooks;
 import reactor.core.publisher.Mono;
 
 import java.time.Duration;
-import java.time.LocalDateTime;
+import java.util.List;
 
 @SpringBootApplication
+@LoadBalancerClients(defaultConfiguration = PeakEwmaLoadBalancerConfiguration.class)
 public class GatewayserverApplication {
 
 	public static void main(String[] args) {
+		// restores the correlation id registered by CorrelationIdFilter into the MDC on every signal
+		Hooks.enableAutomaticContextPropagation();
 		SpringApplication.run(GatewayserverApplication.class, args);
 	}
 
 	@Bean
-	public RouteLocator eazyBankRouteConfig(RouteLocatorBuilder routeLocatorBuilder){
+	public RouteLocator eazyBankRouteConfig(RouteLocatorBuilder routeLocatorBuilder, HybridRateLimiter hybridRateLimiter,
+										  EdgeCacheGatewayFilterFactory edgeCache, RetryBudgetGatewayFilterFactory retryBudget,
+										  HashRoutingGatewayFilterFactory hashRouting, SingleFlightGatewayFilterFactory singleFlight,
+										  MirrorGatewayFilterFactory mirror, RewritePathGatewayFilterFactory rewritePath,
+										  @Value("${gateway.mirror.sample-rate:0}") double mirrorSampleRate){
 		return routeLocatorBuilder.routes()
-				.route(p->p.path("/eazybank/accounts/**")
-						.filters(f->f.rewritePath("/eazybank/accounts/(?<segment>.*)","/${segment}")
-								.addResponseHeader("X-Response-Time", LocalDateTime.now().toString())
+				.route("accounts",p->p.path("/eazybank/accounts/**")
+						.filters(f->f.filter(rewriteServicePath(rewritePath, "accounts"), FilterUtility.RESPONSE_DECORATOR_ORDER - 1)
+								.filter(hashRouting.apply(config->config.setPaths(List.of("/api/fetch"))))
+								.filter(edgeCache.apply(config->config.setTtl(Duration.ofSeconds(60))
+										.setPaths(List.of("/api/contact-info","/api/build-info","/api/java-version"))))
+								.filter(singleFlight.apply(config->config.setPaths(List.of("/api/fetch"))
+										.setMaxWait(Duration.ofSeconds(2)).setMaxFollowers(1000)))
+								.filter(mirror.apply(config->config.setShadowServiceId("ACCOUNTS-SHADOW")
+										.setSampleRate(mirrorSampleRate)))
 								.circuitBreaker(config->config.setName("accountsCircuitBreaker")
 										.setFallbackUri("forward:/contactSupport")))
 						.uri("lb://ACCOUNTS"))
-				.route(p->p.path("/eazybank/loans/**")
-						.filters(f->f.rewritePath("/eazybank/loans/(?<segment>.*)","/${segment}")
-								.addResponseHeader("X-Response-Time", LocalDateTime.now().toString())
-								.retry(retryConfig->retryConfig.setRetries(3)
-										.setMethods(HttpMethod.GET)
-										.setBackoff(Duration.ofMillis(100),Duration.ofMillis(1000),2,true)))
+				.route("loans",p->p.path("/eazybank/loans/**")
+						.filters(f->f.filter(rewriteServicePath(rewritePath, "loans"), FilterUtility.RESPONSE_DECORATOR_ORDER - 1)
+								.filter(hashRouting.apply(config->config.setPaths(List.of("/api/fetch"))))
+								.filter(edgeCache.apply(config->config.setTtl(Duration.ofSeconds(5))
+										.setPaths(List.of("/api/fetch","/api/contact-info","/api/build-info","/api/java-version"))))
+								.filter(singleFlight.apply(config->config.setPaths(List.of("/api/fetch"))
+										.setMaxWait(Duration.ofSeconds(2)).setMaxFollowers(1000)))
+								.filter(mirror.apply(config->config.setShadowServiceId("LOANS-SHADOW")
+										.setSampleRate(mirrorSampleRate)))
+								.filter(retryBudget.apply(retryConfig->retryConfig.setRetries(3)
+										.setRetryRatio(0.2)
+										.setFirstBackoff(Duration.ofMillis(100)).setMaxBackoff(Duration.ofMillis(1000)))))
 						.uri("lb://LOANS"))
-				.route(p->p.path("/eazybank/cards/**")
+				.route("cards",p->p.path("/eazybank/cards/**")
 						.filters(f->f.rewritePath("/eazybank/cards/(?<segment>.*)","/${segment}")
-								.addResponseHeader("X-Response-Time", LocalDateTime.now().toString())
-								.requestRateLimiter(config->config.setRateLimiter(redisRateLimiter())
+								.filter(hashRouting.apply(config->config.setPaths(List.of("/api/fetch"))))
+								.requestRateLimiter(config->config.setRateLimiter(hybridRateLimiter)
 										.setKeyResolver(userKeyResolver())))
 						.uri("lb://CARDS")).build();
 	}
 
+	/**
+	 * Response-decorating route filters run before NettyWriteResponseFilter and match on the rewritten
+	 * path, so on their routes the rewrite has to be ordered ahead of them.
+	 */
+	private static GatewayFilter rewriteServicePath(RewritePathGatewayFilterFactory rewritePath, String service) {
+		return rewritePath.apply(config->config.setRegexp("/eazybank/" + service + "/(?<segment>.*)")
+				.setReplacement("/${segment}"));
+	}
+
 	@Bean
-	public Customizer<ReactiveResilience4JCircuitBreakerFactory> defaultCustomizer() {
+	public Customizer<ReactiveResilience4JCircuitBreakerFactory> defaultCustomizer(
+			@Value("${gateway.deadline.budget:4s}") Duration routeBudget) {
 		return factory -> factory.configureDefault(id -> new Resilience4JConfigBuilder(id)
 				.circuitBreakerConfig(CircuitBreakerConfig.ofDefaults())
-				.timeLimiterConfig(TimeLimiterConfig.custom().timeoutDuration(Duration.ofSeconds(4)).build()).build());
+				.timeLimiterConfig(TimeLimiterConfig.custom().timeoutDuration(routeBudget).build()).build());
 	}
 	@Bean
-	public RedisRateLimiter redisRateLimiter(){
-		return new RedisRateLimiter(1,1,1);
+	@Primary
+	public HybridRateLimiter hybridRateLimiter(ReactiveStringRedisTemplate redisTemplate, MeterRegistry meterRegistry){
+		return new HybridRateLimiter(redisTemplate, meterRegistry, 1, 1, 1, Duration.ofMillis(250));
 	}
 	@Bean
 	KeyResolver userKeyResolver(){
@@ -9,20 +9,24 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class KeycloakRoleConverter  implements Converter<Jwt, Collection<GrantedAuthority>> {
 
+    /** Realm roles are a small fixed set, so each authority is created once and reused. */
+    private final Map<String, GrantedAuthority> authorities = new ConcurrentHashMap<>();
+
     @Override
     public Collection<GrantedAuthority> convert(Jwt source) {
         Map<String, Object> realmAccess = (Map<String, Object>) source.getClaims().get("realm_access");
         if (realmAccess == null || realmAccess.isEmpty()) {
             return new ArrayList<>();
         }
-        Collection<GrantedAuthority> returnValue = ((List<String>) realmAccess.get("roles"))
-                .stream().map(roleName -> "ROLE_" + roleName)
-                .map(SimpleGrantedAuthority::new)
-                .collect(Collectors.toList());
+        List<String> roles = (List<String>) realmAccess.get("roles");
+        Collection<GrantedAuthority> returnValue = new ArrayList<>(roles.size());
+        for (String roleName : roles) {
+            returnValue.add(authorities.computeIfAbsent(roleName, role -> new SimpleGrantedAuthority("ROLE_" + role)));
+        }
         return returnValue;
     }
 
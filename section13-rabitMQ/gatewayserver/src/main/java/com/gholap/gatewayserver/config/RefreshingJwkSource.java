@@ -0,0 +1,107 @@
+package com.gholap.gatewayserver.config;
+
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jwt.SignedJWT;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * JWK source for the JWT decoder that loads the Keycloak key set at startup and refreshes it in
+ * the background, so key rotation never puts a JWK fetch on the request path. A token signed
+ * with an unknown kid triggers an immediate reload, at most once every few seconds. A failed
+ * reload keeps the last good key set; until one has been loaded, tokens are simply rejected.
+ */
+public class RefreshingJwkSource implements Function<SignedJWT, Flux<JWK>>, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(RefreshingJwkSource.class);
+    private static final long MIN_RELOAD_GAP_MILLIS = 10_000;
+
+    private final WebClient webClient;
+    private final String jwkSetUri;
+    private final AtomicReference<JWKSet> jwkSet = new AtomicReference<>();
+    private final AtomicReference<Mono<JWKSet>> pendingReload = new AtomicReference<>(Mono.empty());
+    private final AtomicLong lastReload = new AtomicLong();
+    private final Disposable refresh;
+
+    public RefreshingJwkSource(WebClient webClient, String jwkSetUri, Duration refreshInterval) {
+        this.webClient = webClient;
+        this.jwkSetUri = jwkSetUri;
+        this.refresh = Flux.interval(Duration.ZERO, refreshInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> reload(), 1)
+                // reload() does not error, but never let anything else end the refresh for good
+                .retryWhen(Retry.fixedDelay(Long.MAX_VALUE, refreshInterval)
+                        .doBeforeRetry(signal -> logger.warn("JWK set refresh failed, restarting: {}",
+                                signal.failure().toString())))
+                .subscribe();
+    }
+
+    @Override
+    public Flux<JWK> apply(SignedJWT signedJWT) {
+        JWKSelector selector = new JWKSelector(JWKMatcher.forJWSHeader(signedJWT.getHeader()));
+        JWKSet keys = jwkSet.get();
+        // before the first successful load, wait for the load in flight rather than fetching again
+        Mono<JWKSet> current = keys != null ? Mono.just(keys) : reloadAllowed() ? reload() : pendingReload.get();
+        return current
+                .map(selector::select)
+                .flatMap(found -> found.isEmpty() && reloadAllowed() ? reload().map(selector::select) : Mono.just(found))
+                .flatMapMany(Flux::fromIterable);
+    }
+
+    private boolean reloadAllowed() {
+        long last = lastReload.get();
+        long now = System.currentTimeMillis();
+        return now - last >= MIN_RELOAD_GAP_MILLIS && lastReload.compareAndSet(last, now);
+    }
+
+    /**
+     * Fetches the key set once, shared by everyone asking while it is in flight. Completes with
+     * the last good key set (or empty) when the fetch fails, never with an error.
+     */
+    private Mono<JWKSet> reload() {
+        lastReload.set(System.currentTimeMillis());
+        Mono<JWKSet> reload = load()
+                .doOnNext(jwkSet::set)
+                .onErrorResume(ex -> {
+                    logger.warn("Unable to refresh JWK set from {}: {}", jwkSetUri, ex.getMessage());
+                    return Mono.justOrEmpty(jwkSet.get());
+                })
+                .cache();
+        pendingReload.set(reload);
+        return reload;
+    }
+
+    private Mono<JWKSet> load() {
+        return webClient.get().uri(jwkSetUri)
+                .retrieve()
+                .bodyToMono(String.class)
+                .handle((body, sink) -> {
+                    try {
+                        sink.next(JWKSet.parse(body));
+                    } catch (ParseException ex) {
+                        sink.error(new IllegalStateException("Invalid JWK set from " + jwkSetUri, ex));
+                    }
+                })
+                .cast(JWKSet.class);
+    }
+
+    @Override
+    public void destroy() {
+        refresh.dispose();
+    }
+}
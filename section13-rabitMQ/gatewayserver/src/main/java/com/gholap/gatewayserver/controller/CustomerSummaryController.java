@@ -0,0 +1,118 @@
+package com.gholap.gatewayserver.controller;
+
+import com.gholap.gatewayserver.filter.FilterUtility;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.loadbalancer.reactive.ReactorLoadBalancerExchangeFilterFunction;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+
+/**
+ * Composite read for mobile clients: calls accounts, loans and cards in parallel through the
+ * load balancer and splices their JSON bodies into one object without binding them to DTOs.
+ * Each section is written as soon as its upstream answers; a section that fails or exceeds the
+ * timeout is written as null and listed under "unavailable".
+ */
+@RestController
+public class CustomerSummaryController {
+
+    private static final Logger logger = LoggerFactory.getLogger(CustomerSummaryController.class);
+    private static final Pattern MOBILE_NUMBER = Pattern.compile("[0-9]{10}");
+
+    private final WebClient webClient;
+    private final Duration timeout;
+
+    public CustomerSummaryController(WebClient.Builder webClientBuilder,
+                                     ReactorLoadBalancerExchangeFilterFunction loadBalancerFunction,
+                                     @Value("${gateway.customer-summary.timeout:2s}") Duration timeout) {
+        this.webClient = webClientBuilder.filter(loadBalancerFunction).build();
+        this.timeout = timeout;
+    }
+
+    @GetMapping(value = "/eazybank/customer-summary", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Flux<DataBuffer> customerSummary(@RequestParam String mobileNumber,
+                                            @RequestHeader(value = FilterUtility.CORRELATION_ID, required = false) String correlationId,
+                                            ServerHttpResponse response) {
+        if (!MOBILE_NUMBER.matcher(mobileNumber).matches()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Mobile number must be 10 digits");
+        }
+        String traceId = correlationId != null ? correlationId : FilterUtility.newCorrelationId();
+        response.getHeaders().set(FilterUtility.CORRELATION_ID, traceId);
+        DataBufferFactory bufferFactory = response.bufferFactory();
+        Queue<String> unavailable = new ConcurrentLinkedQueue<>();
+        AtomicBoolean first = new AtomicBoolean(true);
+
+        Flux<DataBuffer> sections = Flux.merge(
+                        section("accounts", "http://ACCOUNTS/api/fetch", mobileNumber, traceId, unavailable),
+                        section("loans", "http://LOANS/api/fetch", mobileNumber, traceId, unavailable),
+                        section("cards", "http://CARDS/api/fetch", mobileNumber, traceId, unavailable))
+                .map(section -> {
+                    String prefix = first.getAndSet(false) ? "" : ",";
+                    return join(bufferFactory, prefix + "\"" + section.name() + "\":", section.body());
+                });
+        return Flux.concat(
+                Mono.fromSupplier(() -> text(bufferFactory, "{")),
+                sections,
+                Mono.fromSupplier(() -> text(bufferFactory, (first.get() ? "" : ",") + "\"unavailable\":"
+                        + unavailable.stream().map(name -> "\"" + name + "\"").toList() + "}")));
+    }
+
+    private Mono<Section> section(String name, String uri, String mobileNumber, String correlationId,
+                                  Queue<String> unavailable) {
+        return webClient.get()
+                .uri(uri + "?mobileNumber={mobileNumber}", mobileNumber)
+                .header(FilterUtility.CORRELATION_ID, correlationId)
+                .accept(MediaType.APPLICATION_JSON)
+                .retrieve()
+                .bodyToMono(DataBuffer.class)
+                .timeout(timeout)
+                .map(body -> new Section(name, body))
+                .onErrorResume(ex -> {
+                    logger.debug("customer-summary {} section unavailable: {}", name, ex.getMessage());
+                    return Mono.empty();
+                })
+                .switchIfEmpty(Mono.fromSupplier(() -> {
+                    unavailable.add(name);
+                    return new Section(name, null);
+                }));
+    }
+
+    private static DataBuffer join(DataBufferFactory bufferFactory, String prefix, DataBuffer body) {
+        byte[] prefixBytes = prefix.getBytes(StandardCharsets.UTF_8);
+        if (body == null) {
+            return text(bufferFactory, prefix + "null");
+        }
+        DataBuffer buffer = bufferFactory.allocateBuffer(prefixBytes.length + body.readableByteCount());
+        buffer.write(prefixBytes);
+        buffer.write(body);
+        DataBufferUtils.release(body);
+        return buffer;
+    }
+
+    private static DataBuffer text(DataBufferFactory bufferFactory, String text) {
+        return bufferFactory.wrap(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private record Section(String name, DataBuffer body) {
+    }
+}
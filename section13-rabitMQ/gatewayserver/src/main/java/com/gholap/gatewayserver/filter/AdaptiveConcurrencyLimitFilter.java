@@ -0,0 +1,156 @@
+package com.gholap.gatewayserver.filter;
+
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Caps the number of in-flight requests per lb:// route with a gradient limit: the limit follows
+ * the ratio between the long-term and the latest round trip time, so it shrinks as soon as an
+ * upstream slows down and grows back by about sqrt(limit) while latency stays flat. Requests over
+ * the limit are answered with 503 straight away instead of queueing on a struggling service.
+ */
+@Component
+public class AdaptiveConcurrencyLimitFilter implements GlobalFilter, Ordered {
+
+    private final ConcurrentHashMap<String, GradientLimit> limits = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+    private final int initialLimit;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double smoothing;
+
+    public AdaptiveConcurrencyLimitFilter(MeterRegistry meterRegistry,
+                                          @Value("${gateway.concurrency-limit.initial-limit:20}") int initialLimit,
+                                          @Value("${gateway.concurrency-limit.min-limit:4}") int minLimit,
+                                          @Value("${gateway.concurrency-limit.max-limit:200}") int maxLimit,
+                                          @Value("${gateway.concurrency-limit.rtt-tolerance:1.5}") double tolerance,
+                                          @Value("${gateway.concurrency-limit.smoothing:0.2}") double smoothing) {
+        this.meterRegistry = meterRegistry;
+        this.initialLimit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.smoothing = smoothing;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        if (route == null || !"lb".equals(route.getUri().getScheme())) {
+            return chain.filter(exchange);
+        }
+        GradientLimit limit = limits.computeIfAbsent(route.getId(), GradientLimit::new);
+        if (!limit.tryAcquire()) {
+            limit.rejected.increment();
+            exchange.getResponse().setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+            return exchange.getResponse().setComplete();
+        }
+        long start = System.nanoTime();
+        return chain.filter(exchange).doFinally(signalType -> limit.release(sample(exchange, signalType, start)));
+    }
+
+    /**
+     * Only exchanges that actually went to the upstream say something about its capacity. Cache
+     * hits, single-flight followers and other answers produced at the edge, as well as 429s, are
+     * released without a sample; a circuit breaker timeout or failure counts as a failure even
+     * though its fallback answered.
+     */
+    private static long sample(ServerWebExchange exchange, SignalType signalType, long start) {
+        Throwable circuitBreakerFailure = exchange.getAttribute(ServerWebExchangeUtils.CIRCUITBREAKER_EXECUTION_EXCEPTION_ATTR);
+        if (circuitBreakerFailure != null) {
+            return circuitBreakerFailure instanceof CallNotPermittedException ? 0 : -1;
+        }
+        HttpStatusCode status = exchange.getResponse().getStatusCode();
+        if (exchange.getAttribute(LatencyMetricsFilter.UPSTREAM_NANOS_ATTR) == null
+                || (status != null && status.value() == HttpStatus.TOO_MANY_REQUESTS.value())) {
+            return 0;
+        }
+        if (signalType == SignalType.ON_ERROR || (status != null && status.is5xxServerError())) {
+            return -1;
+        }
+        return signalType == SignalType.ON_COMPLETE ? Math.max(1, System.nanoTime() - start) : 0;
+    }
+
+    @Override
+    public int getOrder() {
+        // after LatencyMetricsFilter, CorrelationIdFilter and LoadSheddingFilter so rejections are
+        // still timed and traceable and shed requests never take a slot
+        return Ordered.HIGHEST_PRECEDENCE + 3;
+    }
+
+    private final class GradientLimit {
+
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final Counter rejected;
+        private volatile double limit = initialLimit;
+        private double longRttNanos;
+
+        private GradientLimit(String routeId) {
+            Gauge.builder("gateway.concurrency.limit", this, gradientLimit -> gradientLimit.limit)
+                    .description("Current adaptive concurrency limit per route")
+                    .tag("route", routeId)
+                    .register(meterRegistry);
+            Gauge.builder("gateway.concurrency.inflight", inFlight, AtomicInteger::get)
+                    .tag("route", routeId)
+                    .register(meterRegistry);
+            this.rejected = Counter.builder("gateway.concurrency.rejected")
+                    .tag("route", routeId)
+                    .register(meterRegistry);
+        }
+
+        private boolean tryAcquire() {
+            while (true) {
+                int current = inFlight.get();
+                if (current >= (int) limit) {
+                    return false;
+                }
+                if (inFlight.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        /**
+         * @param rttNanos round trip of a successful exchange, 0 when there is no sample (cancelled
+         *                 or answered at the edge) or -1 for a failure, which backs the limit off
+         *                 multiplicatively
+         */
+        private synchronized void release(long rttNanos) {
+            int inFlightBefore = inFlight.getAndDecrement();
+            double newLimit;
+            if (rttNanos < 0) {
+                newLimit = limit * 0.9;
+            } else if (rttNanos == 0) {
+                return;
+            } else {
+                longRttNanos = longRttNanos == 0 ? rttNanos : longRttNanos * 0.99 + rttNanos * 0.01;
+                // an under-used limit says nothing about how far the upstream could go
+                if (inFlightBefore < limit / 2 && rttNanos <= longRttNanos) {
+                    return;
+                }
+                double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRttNanos / rttNanos));
+                newLimit = limit * gradient + Math.sqrt(limit);
+                newLimit = limit * (1 - smoothing) + newLimit * smoothing;
+            }
+            limit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.gholap.gatewayserver.filter;
+
+import io.micrometer.context.ContextRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Makes sure every routed request carries an eazybank-correlation-id: an incoming id is reused,
+ * otherwise a time-ordered one is generated. The id is written to the request and the response
+ * headers up front in a single pass and is available downstream in the Reactor context under
+ * {@link FilterUtility#CORRELATION_ID}. That context key is registered as a thread-local accessor
+ * for the MDC entry of the same name, so with automatic context propagation enabled (see
+ * GatewayserverApplication) every log line written while the rest of the chain runs carries the id,
+ * whichever thread the signal arrives on.
+ */
+@Component
+public class CorrelationIdFilter implements GlobalFilter, Ordered {
+
+    private static final Logger logger = LoggerFactory.getLogger(CorrelationIdFilter.class);
+
+    static {
+        ContextRegistry.getInstance().registerThreadLocalAccessor(FilterUtility.CORRELATION_ID,
+                () -> MDC.get(FilterUtility.CORRELATION_ID),
+                correlationId -> MDC.put(FilterUtility.CORRELATION_ID, correlationId),
+                () -> MDC.remove(FilterUtility.CORRELATION_ID));
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        String correlationId = exchange.getRequest().getHeaders().getFirst(FilterUtility.CORRELATION_ID);
+        ServerWebExchange tracedExchange = exchange;
+        if (correlationId == null) {
+            correlationId = FilterUtility.newCorrelationId();
+            String generatedId = correlationId;
+            tracedExchange = exchange.mutate()
+                    .request(builder -> builder.headers(headers -> headers.set(FilterUtility.CORRELATION_ID, generatedId)))
+                    .build();
+        }
+        tracedExchange.getResponse().getHeaders().set(FilterUtility.CORRELATION_ID, correlationId);
+        if (logger.isDebugEnabled()) {
+            try (MDC.MDCCloseable ignored = MDC.putCloseable(FilterUtility.CORRELATION_ID, correlationId)) {
+                logger.debug("eazyBank-correlation-id for {} : {}", exchange.getRequest().getPath(), correlationId);
+            }
+        }
+        String contextId = correlationId;
+        return chain.filter(tracedExchange)
+                .contextWrite(context -> context.put(FilterUtility.CORRELATION_ID, contextId));
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 1;
+    }
+}
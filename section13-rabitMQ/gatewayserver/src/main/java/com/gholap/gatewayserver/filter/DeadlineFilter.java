@@ -0,0 +1,57 @@
+package com.gholap.gatewayserver.filter;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Tells the services behind lb:// routes how long the edge will wait for them. The budget is the
+ * same one the route time limiter enforces. A caller that already sent a tighter timeout keeps it,
+ * clamped to [0, budget] so a client can neither stretch the budget nor send a negative value
+ * through to the services. The value is relative (milliseconds left) so it does not depend on clocks being in sync.
+ */
+@Component
+public class DeadlineFilter implements GlobalFilter, Ordered {
+
+    public static final String TIMEOUT_HEADER = "eazybank-timeout-ms";
+
+    private final long budgetMillis;
+
+    public DeadlineFilter(@Value("${gateway.deadline.budget:4s}") Duration budget) {
+        this.budgetMillis = budget.toMillis();
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        if (route == null || !"lb".equals(route.getUri().getScheme())) {
+            return chain.filter(exchange);
+        }
+        long timeoutMillis = budgetMillis;
+        String requested = exchange.getRequest().getHeaders().getFirst(TIMEOUT_HEADER);
+        if (requested != null) {
+            try {
+                timeoutMillis = Math.max(0, Math.min(timeoutMillis, Long.parseLong(requested)));
+            } catch (NumberFormatException ex) {
+                // ignore a malformed value and fall back to the route budget
+            }
+        }
+        String timeout = Long.toString(timeoutMillis);
+        return chain.filter(exchange.mutate()
+                .request(builder -> builder.headers(headers -> headers.set(TIMEOUT_HEADER, timeout)))
+                .build());
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 4;
+    }
+}
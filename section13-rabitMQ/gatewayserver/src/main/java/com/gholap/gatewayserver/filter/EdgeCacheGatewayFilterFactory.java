@@ -0,0 +1,292 @@
+package com.gholap.gatewayserver.filter;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Caches successful upstream GET responses at the edge. Entries are keyed by route, path, query
+ * and the configured request headers, live for the route TTL (or less when the upstream sends a
+ * shorter max-age) and are held in direct ByteBuffers so hits are written back as-is. All routes
+ * share one cache bounded by gateway.response-cache.max-size, weighed by body size.
+ */
+@Component
+public class EdgeCacheGatewayFilterFactory extends AbstractGatewayFilterFactory<EdgeCacheGatewayFilterFactory.Config> {
+
+    private static final Pattern MAX_AGE = Pattern.compile("max-age=(\\d+)");
+    private static final Set<String> SKIPPED_HEADERS = Set.of(HttpHeaders.CONTENT_LENGTH.toLowerCase(),
+            HttpHeaders.TRANSFER_ENCODING.toLowerCase(), HttpHeaders.CONNECTION.toLowerCase(),
+            HttpHeaders.SET_COOKIE.toLowerCase(), FilterUtility.CORRELATION_ID.toLowerCase(),
+            LatencyMetricsFilter.SERVER_TIMING.toLowerCase());
+
+    private final Cache<String, CachedResponse> cache;
+    private final MeterRegistry meterRegistry;
+
+    public EdgeCacheGatewayFilterFactory(@Value("${gateway.response-cache.max-size:16MB}") DataSize maxSize,
+                                         MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.meterRegistry = meterRegistry;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((String key, CachedResponse response) -> key.length() + response.body().capacity())
+                .expireAfter(new Expiry<String, CachedResponse>() {
+                    @Override
+                    public long expireAfterCreate(String key, CachedResponse response, long currentTime) {
+                        return response.ttl().toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, CachedResponse response, long currentTime,
+                                                  long currentDuration) {
+                        return response.ttl().toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, CachedResponse response, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        List<PathPattern> paths = config.getPaths().stream().map(PathPatternParser.defaultInstance::parse).toList();
+        return new OrderedGatewayFilter((exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            if (request.getMethod() != HttpMethod.GET
+                    || (!paths.isEmpty() && paths.stream().noneMatch(path -> path.matches(request.getPath().pathWithinApplication())))) {
+                return chain.filter(exchange);
+            }
+            String requestCacheControl = String.join(",", request.getHeaders().getOrEmpty(HttpHeaders.CACHE_CONTROL));
+            if (requestCacheControl.contains("no-store")) {
+                return chain.filter(exchange);
+            }
+            String key = cacheKey(exchange, config);
+            String routeId = routeId(exchange);
+            CachedResponse cached = requestCacheControl.contains("no-cache") ? null : cache.getIfPresent(key);
+            if (cached != null) {
+                return writeCached(exchange, cached, routeId);
+            }
+            count(routeId, "miss");
+            return chain.filter(exchange.mutate().response(new CachingResponse(exchange, key, config)).build());
+        }, FilterUtility.RESPONSE_DECORATOR_ORDER);
+    }
+
+    private Mono<Void> writeCached(ServerWebExchange exchange, CachedResponse cached, String routeId) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.getHeaders().addAll(cached.headers());
+        response.getHeaders().set(HttpHeaders.AGE, Long.toString(cached.ageSeconds()));
+        if (exchange.getRequest().getHeaders().getIfNoneMatch().contains(cached.headers().getETag())) {
+            count(routeId, "not_modified");
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            return response.setComplete();
+        }
+        count(routeId, "hit");
+        response.setStatusCode(HttpStatus.OK);
+        response.getHeaders().setContentLength(cached.body().capacity());
+        return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(cached.body().duplicate())));
+    }
+
+    private static String cacheKey(ServerWebExchange exchange, Config config) {
+        ServerHttpRequest request = exchange.getRequest();
+        StringBuilder key = new StringBuilder(routeId(exchange)).append(' ').append(request.getPath().value());
+        if (request.getURI().getRawQuery() != null) {
+            key.append('?').append(request.getURI().getRawQuery());
+        }
+        for (String header : config.getKeyHeaders()) {
+            key.append('|').append(header).append('=').append(request.getHeaders().getOrEmpty(header));
+        }
+        return key.toString();
+    }
+
+    private void count(String routeId, String result) {
+        meterRegistry.counter("gateway.response.cache", "route", routeId, "result", result).increment();
+    }
+
+    private static String routeId(ServerWebExchange exchange) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        return route != null ? route.getId() : "none";
+    }
+
+    private class CachingResponse extends ServerHttpResponseDecorator {
+
+        private final ServerWebExchange exchange;
+        private final String key;
+        private final Config config;
+
+        CachingResponse(ServerWebExchange exchange, String key, Config config) {
+            super(exchange.getResponse());
+            this.exchange = exchange;
+            this.key = key;
+            this.config = config;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            Duration ttl = ttl();
+            if (ttl.isZero()) {
+                return super.writeWith(body);
+            }
+            long maxBytes = config.getMaxBytes().toBytes();
+            AtomicLong size = new AtomicLong();
+            AtomicBoolean first = new AtomicBoolean(true);
+            // a body within maxBytes arrives as a single list once it completes; a larger (e.g.
+            // chunked) one is released as soon as it overflows and streamed through uncached
+            Flux<DataBuffer> buffered = Flux.<DataBuffer>from(body)
+                    .bufferUntil(buffer -> size.addAndGet(buffer.readableByteCount()) > maxBytes)
+                    .doOnNext(buffers -> {
+                        if (first.getAndSet(false) && size.get() <= maxBytes) {
+                            store(buffers, size.intValue(), ttl);
+                        }
+                    })
+                    .flatMapIterable(Function.identity());
+            return super.writeWith(buffered);
+        }
+
+        private void store(List<DataBuffer> buffers, int size, Duration ttl) {
+            ByteBuffer copy = ByteBuffer.allocateDirect(size);
+            for (DataBuffer buffer : buffers) {
+                int length = buffer.readableByteCount();
+                buffer.toByteBuffer(buffer.readPosition(), copy, copy.position(), length);
+                copy.position(copy.position() + length);
+            }
+            copy.flip();
+            HttpHeaders headers = getHeaders();
+            if (headers.getETag() == null) {
+                byte[] bytes = new byte[copy.remaining()];
+                copy.duplicate().get(bytes);
+                headers.setETag("\"" + DigestUtils.md5DigestAsHex(bytes) + "\"");
+            }
+            cache.put(key, new CachedResponse(cachedHeaders(headers), copy.asReadOnlyBuffer(), ttl,
+                    System.currentTimeMillis()));
+        }
+
+        /**
+         * Only 200s that really came from the upstream (not a circuit breaker fallback) are stored,
+         * never when the upstream forbids it or announces a body larger than the route allows.
+         */
+        private Duration ttl() {
+            HttpHeaders headers = getHeaders();
+            if (getStatusCode() == null || getStatusCode().value() != HttpStatus.OK.value()
+                    || exchange.getAttribute(LatencyMetricsFilter.UPSTREAM_NANOS_ATTR) == null
+                    || headers.getContentLength() > config.getMaxBytes().toBytes()) {
+                return Duration.ZERO;
+            }
+            String cacheControl = headers.getCacheControl();
+            if (cacheControl == null) {
+                return config.getTtl();
+            }
+            if (cacheControl.contains("no-store") || cacheControl.contains("private") || cacheControl.contains("no-cache")) {
+                return Duration.ZERO;
+            }
+            Matcher maxAge = MAX_AGE.matcher(cacheControl);
+            if (maxAge.find()) {
+                Duration upstreamTtl = Duration.ofSeconds(Long.parseLong(maxAge.group(1)));
+                return upstreamTtl.compareTo(config.getTtl()) < 0 ? upstreamTtl : config.getTtl();
+            }
+            return config.getTtl();
+        }
+
+        @Override
+        public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+            return writeWith(Flux.from(body).flatMapSequential(p -> p));
+        }
+    }
+
+    private static HttpHeaders cachedHeaders(HttpHeaders headers) {
+        HttpHeaders cachedHeaders = new HttpHeaders();
+        headers.forEach((name, values) -> {
+            if (!SKIPPED_HEADERS.contains(name.toLowerCase())) {
+                cachedHeaders.put(name, new ArrayList<>(values));
+            }
+        });
+        return HttpHeaders.readOnlyHttpHeaders(cachedHeaders);
+    }
+
+    private record CachedResponse(HttpHeaders headers, ByteBuffer body, Duration ttl, long storedAt) {
+
+        long ageSeconds() {
+            return (System.currentTimeMillis() - storedAt) / 1000;
+        }
+    }
+
+    public static class Config {
+
+        private Duration ttl = Duration.ofSeconds(30);
+        private DataSize maxBytes = DataSize.ofKilobytes(64);
+        private List<String> paths = new ArrayList<>();
+        private List<String> keyHeaders = new ArrayList<>();
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public Config setTtl(Duration ttl) {
+            this.ttl = ttl;
+            return this;
+        }
+
+        public DataSize getMaxBytes() {
+            return maxBytes;
+        }
+
+        public Config setMaxBytes(DataSize maxBytes) {
+            this.maxBytes = maxBytes;
+            return this;
+        }
+
+        public List<String> getPaths() {
+            return paths;
+        }
+
+        public Config setPaths(List<String> paths) {
+            this.paths = paths;
+            return this;
+        }
+
+        public List<String> getKeyHeaders() {
+            return keyHeaders;
+        }
+
+        public Config setKeyHeaders(List<String> keyHeaders) {
+            this.keyHeaders = keyHeaders;
+            return this;
+        }
+    }
+}
@@ -1,29 +1,33 @@
 package com.gholap.gatewayserver.filter;
 
-import org.springframework.http.HttpHeaders;
-import org.springframework.stereotype.Component;
-import org.springframework.web.server.ServerWebExchange;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
 
-import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
 
-@Component
-public class FilterUtility {
+public final class FilterUtility {
     public static final String CORRELATION_ID = "eazybank-correlation-id";
 
-    public String getCorrelationId(HttpHeaders requestHeaders) {
-        if (requestHeaders.get(CORRELATION_ID) != null) {
-            List<String> requestHeaderList = requestHeaders.get(CORRELATION_ID);
-            return requestHeaderList.stream().findFirst().get();
-        } else {
-            return null;
-        }
-    }
+    /**
+     * Order for route filters that decorate the response. NettyWriteResponseFilter writes the
+     * upstream body through the response of the exchange it was given, so a decorator only sees
+     * the body when it is installed before that filter runs. Request path rewrites the decorating
+     * filters match on have to be ordered before this.
+     */
+    public static final int RESPONSE_DECORATOR_ORDER = NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1;
 
-    public ServerWebExchange setRequestHeader(ServerWebExchange exchange, String name, String value) {
-        return exchange.mutate().request(exchange.getRequest().mutate().header(name, value).build()).build();
+    private FilterUtility() {
     }
 
-    public ServerWebExchange setCorrelationId(ServerWebExchange exchange, String correlationId) {
-        return this.setRequestHeader(exchange, CORRELATION_ID, correlationId);
+    /**
+     * Time-ordered (version 7 layout) UUID: 48 bits of epoch millis followed by random bits from
+     * ThreadLocalRandom, so generation never contends on or blocks for SecureRandom and the ids
+     * sort by creation time in logs.
+     */
+    public static String newCorrelationId() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long mostSigBits = (System.currentTimeMillis() << 16) | 0x7000L | (random.nextLong() & 0x0FFFL);
+        long leastSigBits = (random.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(mostSigBits, leastSigBits).toString();
     }
 }
@@ -0,0 +1,79 @@
+package com.gholap.gatewayserver.filter;
+
+import com.gholap.gatewayserver.loadbalancer.PeakEwmaLoadBalancer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Opts a route into key-affine load balancing: for matching paths the configured query parameter
+ * is put into the exchange attribute PeakEwmaLoadBalancer hashes on, so lookups for the same
+ * customer keep hitting the same, warm, replica. Disabled unless gateway.hash-routing.enabled is
+ * set. The key never travels as a header, and an incoming {@value #ROUTING_KEY_HEADER} header is
+ * always dropped, so clients can neither choose their replica nor pass the header upstream.
+ */
+@Component
+public class HashRoutingGatewayFilterFactory extends AbstractGatewayFilterFactory<HashRoutingGatewayFilterFactory.Config> {
+
+    public static final String ROUTING_KEY_HEADER = "eazybank-routing-key";
+
+    private final boolean enabled;
+
+    public HashRoutingGatewayFilterFactory(@Value("${gateway.hash-routing.enabled:false}") boolean enabled) {
+        super(Config.class);
+        this.enabled = enabled;
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        List<PathPattern> paths = config.getPaths().stream().map(PathPatternParser.defaultInstance::parse).toList();
+        return (exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            if (request.getHeaders().containsKey(ROUTING_KEY_HEADER)) {
+                request = request.mutate().headers(headers -> headers.remove(ROUTING_KEY_HEADER)).build();
+                exchange = exchange.mutate().request(request).build();
+            }
+            if (!enabled) {
+                return chain.filter(exchange);
+            }
+            String key = request.getQueryParams().getFirst(config.getKeyParameter());
+            ServerHttpRequest matched = request;
+            if (key != null && !key.isEmpty()
+                    && paths.stream().anyMatch(path -> path.matches(matched.getPath().pathWithinApplication()))) {
+                exchange.getAttributes().put(PeakEwmaLoadBalancer.HASH_KEY_ATTRIBUTE, key);
+            }
+            return chain.filter(exchange);
+        };
+    }
+
+    public static class Config {
+
+        private String keyParameter = "mobileNumber";
+        private List<String> paths = new ArrayList<>(List.of("/api/fetch"));
+
+        public String getKeyParameter() {
+            return keyParameter;
+        }
+
+        public Config setKeyParameter(String keyParameter) {
+            this.keyParameter = keyParameter;
+            return this;
+        }
+
+        public List<String> getPaths() {
+            return paths;
+        }
+
+        public Config setPaths(List<String> paths) {
+            this.paths = paths;
+            return this;
+        }
+    }
+}
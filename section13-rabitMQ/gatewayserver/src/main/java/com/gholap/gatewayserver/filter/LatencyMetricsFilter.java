@@ -0,0 +1,89 @@
+package com.gholap.gatewayserver.filter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures every exchange with System.nanoTime: "gateway" is the total time spent at the edge,
+ * "upstream" the time from handing the request to the Netty routing filter until the upstream
+ * response headers arrived. Both are recorded per route as histogram timers and sent back to the
+ * client in a Server-Timing header.
+ */
+@Component
+public class LatencyMetricsFilter implements GlobalFilter, Ordered {
+
+    public static final String SERVER_TIMING = "Server-Timing";
+    static final String UPSTREAM_NANOS_ATTR = LatencyMetricsFilter.class.getName() + ".upstreamNanos";
+    private static final String METRIC_NAME = "gateway.route.latency";
+
+    private final MeterRegistry meterRegistry;
+
+    public LatencyMetricsFilter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        long start = System.nanoTime();
+        exchange.getResponse().beforeCommit(() -> {
+            exchange.getResponse().getHeaders().add(SERVER_TIMING, serverTiming(exchange, System.nanoTime() - start));
+            return Mono.empty();
+        });
+        return chain.filter(exchange).doFinally(signalType -> {
+            String routeId = routeId(exchange);
+            String status = status(exchange);
+            timer(routeId, "gateway", status).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            Long upstreamNanos = exchange.getAttribute(UPSTREAM_NANOS_ATTR);
+            if (upstreamNanos != null) {
+                timer(routeId, "upstream", status).record(upstreamNanos, TimeUnit.NANOSECONDS);
+            }
+        });
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    private Timer timer(String routeId, String phase, String status) {
+        return Timer.builder(METRIC_NAME)
+                .description("Latency of gateway exchanges per route")
+                .tag("route", routeId)
+                .tag("phase", phase)
+                .tag("status", status)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private static String serverTiming(ServerWebExchange exchange, long totalNanos) {
+        Long upstreamNanos = exchange.getAttribute(UPSTREAM_NANOS_ATTR);
+        String total = "gateway;dur=" + millis(totalNanos);
+        return upstreamNanos == null ? total : "upstream;dur=" + millis(upstreamNanos) + ", " + total;
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.1f", nanos / 1_000_000.0);
+    }
+
+    private static String routeId(ServerWebExchange exchange) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        return route != null ? route.getId() : "none";
+    }
+
+    private static String status(ServerWebExchange exchange) {
+        HttpStatusCode statusCode = exchange.getResponse().getStatusCode();
+        return statusCode != null ? String.valueOf(statusCode.value()) : "none";
+    }
+}
@@ -0,0 +1,38 @@
+package com.gholap.gatewayserver.filter;
+
+import com.gholap.gatewayserver.loadbalancer.PeakEwmaLoadBalancer;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.ReactiveLoadBalancerClientFilter;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+/**
+ * ReactiveLoadBalancerClientFilter reports completions and errors to the load balancer lifecycle
+ * but not cancellations, so a call cut short by the circuit breaker time limiter, the deadline or
+ * a client disconnect would stay outstanding on its instance forever. This filter runs inside all
+ * of those and releases the chosen instance when its part of the chain is cancelled.
+ */
+@Component
+public class LoadBalancerReleaseFilter implements GlobalFilter, Ordered {
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        return chain.filter(exchange).doFinally(signalType -> {
+            if (signalType == SignalType.CANCEL
+                    && exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_LOADBALANCER_RESPONSE_ATTR)
+                    instanceof PeakEwmaLoadBalancer.TrackedResponse trackedResponse) {
+                trackedResponse.cancel();
+            }
+        });
+    }
+
+    @Override
+    public int getOrder() {
+        return ReactiveLoadBalancerClientFilter.LOAD_BALANCER_CLIENT_FILTER_ORDER - 1;
+    }
+}
@@ -0,0 +1,177 @@
+package com.gholap.gatewayserver.filter;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.internal.ThreadExecutorMap;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sheds the least important traffic first when the gateway itself is overloaded. Overload is read
+ * from two signals sampled every 100ms: the scheduling lag of the Netty event loops (a probe task
+ * is queued on every loop that has served a request) and the number of requests waiting for an
+ * upstream connection from the Reactor Netty pools. The worst lag of a tick is only known once
+ * every loop has run its probe, so it is folded into the slowly decaying lag at the next tick.
+ * At the first level only LOW requests (build and java version info, batch, bulk and export calls)
+ * get a fast 503; at the second level NORMAL requests (GETs without an authenticated caller) go
+ * too. HIGH traffic, i.e. writes and requests carrying a valid token, is never shed here. The user
+ * header is not trusted for this since any client can send it.
+ */
+@Component
+public class LoadSheddingFilter implements GlobalFilter, Ordered, DisposableBean {
+
+    enum Priority { LOW, NORMAL, HIGH }
+
+    private static final String PENDING_CONNECTIONS_METRIC = "reactor.netty.connection.provider.pending.connections";
+
+    private final Set<EventExecutor> eventLoops = ConcurrentHashMap.newKeySet();
+    private final MeterRegistry meterRegistry;
+    private final long lagThresholdNanos;
+    private final double pendingThreshold;
+    private final Disposable probe;
+    private volatile long eventLoopLagNanos;
+    private LagProbe lastLagProbe;
+    private volatile int level;
+
+    public LoadSheddingFilter(MeterRegistry meterRegistry,
+                              @Value("${gateway.load-shedding.event-loop-lag-threshold:50ms}") Duration lagThreshold,
+                              @Value("${gateway.load-shedding.pending-connections-threshold:100}") double pendingThreshold) {
+        this.meterRegistry = meterRegistry;
+        this.lagThresholdNanos = lagThreshold.toNanos();
+        this.pendingThreshold = pendingThreshold;
+        Gauge.builder("gateway.eventloop.lag", this, filter -> filter.eventLoopLagNanos / 1_000_000.0)
+                .description("Worst scheduling delay of the Netty event loops in milliseconds")
+                .register(meterRegistry);
+        Gauge.builder("gateway.shedding.level", this, filter -> filter.level)
+                .description("0 = no shedding, 1 = shedding LOW, 2 = shedding LOW and NORMAL")
+                .register(meterRegistry);
+        this.probe = Flux.interval(Duration.ofMillis(100))
+                .onBackpressureDrop()
+                .subscribe(tick -> sample());
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        EventExecutor eventLoop = ThreadExecutorMap.currentExecutor();
+        if (eventLoop != null) {
+            eventLoops.add(eventLoop);
+        }
+        int currentLevel = level;
+        if (currentLevel == 0) {
+            return chain.filter(exchange);
+        }
+        return classify(exchange).flatMap(priority -> priority.ordinal() >= currentLevel
+                ? chain.filter(exchange)
+                : shed(exchange, priority));
+    }
+
+    private Mono<Void> shed(ServerWebExchange exchange, Priority priority) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        meterRegistry.counter("gateway.shedding.rejected", "route", route != null ? route.getId() : "none",
+                "priority", priority.name()).increment();
+        exchange.getResponse().setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+        exchange.getResponse().getHeaders().set("Retry-After", "1");
+        return exchange.getResponse().setComplete();
+    }
+
+    static Mono<Priority> classify(ServerWebExchange exchange) {
+        String path = exchange.getRequest().getPath().value();
+        if (path.endsWith("/build-info") || path.endsWith("/java-version")
+                || path.endsWith("/batch") || path.endsWith("/bulk") || path.endsWith("/export")) {
+            return Mono.just(Priority.LOW);
+        }
+        // writes are authenticated already and costlier to lose than a read that can be repeated
+        if (exchange.getRequest().getMethod() != HttpMethod.GET) {
+            return Mono.just(Priority.HIGH);
+        }
+        // GETs are open, but a bearer token is still validated when one is sent
+        return exchange.getPrincipal()
+                .filter(principal -> principal instanceof Authentication authentication
+                        && authentication.isAuthenticated() && !(authentication instanceof AnonymousAuthenticationToken))
+                .map(principal -> Priority.HIGH)
+                .defaultIfEmpty(Priority.NORMAL);
+    }
+
+    private void sample() {
+        long now = System.nanoTime();
+        LagProbe previous = lastLagProbe;
+        if (previous != null) {
+            long tickLag = previous.maxLagNanos.get();
+            if (previous.pending.get() > 0) {
+                // a loop has not even got to the previous probe yet
+                tickLag = Math.max(tickLag, now - previous.startNanos);
+            }
+            // decay slowly so a single quiet tick does not end shedding while loops are still busy
+            eventLoopLagNanos = Math.max(tickLag, (long) (eventLoopLagNanos * 0.8));
+        }
+        LagProbe lagProbe = new LagProbe(now);
+        for (EventExecutor eventLoop : eventLoops) {
+            if (eventLoop.isShuttingDown()) {
+                eventLoops.remove(eventLoop);
+                continue;
+            }
+            lagProbe.pending.incrementAndGet();
+            eventLoop.execute(() -> {
+                lagProbe.maxLagNanos.accumulateAndGet(System.nanoTime() - now, Math::max);
+                lagProbe.pending.decrementAndGet();
+            });
+        }
+        lastLagProbe = lagProbe;
+        double pending = meterRegistry.find(PENDING_CONNECTIONS_METRIC).gauges().stream()
+                .mapToDouble(Gauge::value)
+                .filter(value -> !Double.isNaN(value))
+                .sum();
+        long lag = eventLoopLagNanos;
+        if (lag > 4 * lagThresholdNanos || pending > 4 * pendingThreshold) {
+            level = 2;
+        } else if (lag > lagThresholdNanos || pending > pendingThreshold) {
+            level = 1;
+        } else {
+            level = 0;
+        }
+    }
+
+    /** One tick's probes across all event loops, sampled from the interval thread only. */
+    private static final class LagProbe {
+
+        private final long startNanos;
+        private final AtomicLong maxLagNanos = new AtomicLong();
+        private final AtomicInteger pending = new AtomicInteger();
+
+        private LagProbe(long startNanos) {
+            this.startNanos = startNanos;
+        }
+    }
+
+    @Override
+    public int getOrder() {
+        // before the concurrency limiter, so shed requests never take a slot there
+        return Ordered.HIGHEST_PRECEDENCE + 2;
+    }
+
+    @Override
+    public void destroy() {
+        probe.dispose();
+    }
+}
@@ -0,0 +1,258 @@
+package com.gholap.gatewayserver.filter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.client.loadbalancer.reactive.ReactorLoadBalancerExchangeFilterFunction;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+
+/**
+ * Copies a sample of a route's requests to a shadow service (for example a new build registered in
+ * Eureka as ACCOUNTS-SHADOW) and throws the shadow responses away. The copy is sent on the side,
+ * so the primary request never waits for it; once both bodies have been read their latencies are
+ * recorded side by side and their status and body checksum compared. The filter is ordered ahead
+ * of NettyWriteResponseFilter so the primary body passes through its checksum. Only bodyless
+ * methods are mirrored and at most maxInFlight shadow calls run at once, so a slow shadow cannot
+ * build up memory here. The shadow call gets a correlation id of its own and names the primary's in
+ * {@value #MIRRORED_FROM_HEADER}, so shadow traffic never shows up in logs as the real request.
+ */
+@Component
+public class MirrorGatewayFilterFactory extends AbstractGatewayFilterFactory<MirrorGatewayFilterFactory.Config> {
+
+    public static final String MIRRORED_FROM_HEADER = "eazybank-mirrored-from";
+    private static final Logger logger = LoggerFactory.getLogger(MirrorGatewayFilterFactory.class);
+    private static final Set<HttpMethod> MIRRORED_METHODS = Set.of(HttpMethod.GET, HttpMethod.HEAD);
+
+    private final WebClient webClient;
+    private final MeterRegistry meterRegistry;
+
+    public MirrorGatewayFilterFactory(WebClient.Builder webClientBuilder,
+                                      ReactorLoadBalancerExchangeFilterFunction loadBalancerFunction,
+                                      MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.webClient = webClientBuilder.filter(loadBalancerFunction).build();
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        AtomicInteger inFlight = new AtomicInteger();
+        return new OrderedGatewayFilter((exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            if (config.getSampleRate() <= 0 || !MIRRORED_METHODS.contains(request.getMethod())
+                    || ThreadLocalRandom.current().nextDouble() >= config.getSampleRate()) {
+                return chain.filter(exchange);
+            }
+            String routeId = routeId(exchange);
+            if (inFlight.incrementAndGet() > config.getMaxInFlight()) {
+                inFlight.decrementAndGet();
+                meterRegistry.counter("gateway.mirror.skipped", "route", routeId).increment();
+                return chain.filter(exchange);
+            }
+            Sinks.One<Outcome> primary = Sinks.one();
+            Mono.zip(primary.asMono(), shadow(request, config))
+                    .doFinally(signalType -> inFlight.decrementAndGet())
+                    .subscribeOn(Schedulers.parallel())
+                    .subscribe(outcomes -> compare(routeId, outcomes.getT1(), outcomes.getT2()),
+                            ex -> logger.debug("Mirror comparison for route {} failed: {}", routeId, ex.getMessage()));
+
+            ChecksumResponse response = new ChecksumResponse(exchange.getResponse(), primary);
+            return chain.filter(exchange.mutate().response(response).build())
+                    // the body never completed: nothing to compare
+                    .doFinally(signalType -> primary.tryEmitError(
+                            new IllegalStateException("Primary response ended without a complete body")));
+        }, FilterUtility.RESPONSE_DECORATOR_ORDER);
+    }
+
+    private Mono<Outcome> shadow(ServerHttpRequest request, Config config) {
+        URI uri = UriComponentsBuilder.fromUri(request.getURI())
+                .scheme("http").host(config.getShadowServiceId()).port(-1)
+                .build(true).toUri();
+        long start = System.nanoTime();
+        return webClient.method(request.getMethod())
+                .uri(uri)
+                .headers(headers -> {
+                    headers.addAll(request.getHeaders());
+                    headers.remove(HttpHeaders.HOST);
+                    headers.remove(HttpHeaders.CONTENT_LENGTH);
+                    headers.remove(HashRoutingGatewayFilterFactory.ROUTING_KEY_HEADER);
+                    String correlationId = headers.getFirst(FilterUtility.CORRELATION_ID);
+                    if (correlationId != null) {
+                        headers.set(MIRRORED_FROM_HEADER, correlationId);
+                    }
+                    headers.set(FilterUtility.CORRELATION_ID, FilterUtility.newCorrelationId());
+                })
+                .exchangeToMono(response -> {
+                    CRC32 checksum = new CRC32();
+                    return response.bodyToFlux(DataBuffer.class)
+                            .doOnNext(buffer -> {
+                                update(checksum, buffer);
+                                DataBufferUtils.release(buffer);
+                            })
+                            .then(Mono.fromSupplier(() -> new Outcome(response.statusCode().value(),
+                                    checksum.getValue(), System.nanoTime() - start)));
+                })
+                .timeout(config.getShadowTimeout())
+                .onErrorResume(ex -> Mono.just(new Outcome(-1, 0, System.nanoTime() - start)));
+    }
+
+    private void compare(String routeId, Outcome primary, Outcome shadow) {
+        latency(routeId, "primary").record(primary.nanos(), TimeUnit.NANOSECONDS);
+        String result;
+        if (shadow.status() < 0) {
+            result = "shadow_error";
+        } else {
+            latency(routeId, "shadow").record(shadow.nanos(), TimeUnit.NANOSECONDS);
+            if (primary.status() != shadow.status()) {
+                result = "status_mismatch";
+            } else if (primary.checksum() != shadow.checksum()) {
+                result = "body_mismatch";
+            } else {
+                result = "match";
+            }
+        }
+        meterRegistry.counter("gateway.mirror.diff", "route", routeId, "result", result).increment();
+    }
+
+    private Timer latency(String routeId, String target) {
+        return Timer.builder("gateway.mirror.latency")
+                .description("Latency of mirrored requests on the primary and the shadow service")
+                .tag("route", routeId)
+                .tag("target", target)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private static void update(CRC32 checksum, DataBuffer buffer) {
+        try (DataBuffer.ByteBufferIterator iterator = buffer.readableByteBuffers()) {
+            while (iterator.hasNext()) {
+                ByteBuffer byteBuffer = iterator.next();
+                checksum.update(byteBuffer);
+            }
+        }
+    }
+
+    private static String routeId(ServerWebExchange exchange) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        return route != null ? route.getId() : "none";
+    }
+
+    private record Outcome(int status, long checksum, long nanos) {
+    }
+
+    /**
+     * Passes the primary body through untouched while folding it into a CRC32, and emits the
+     * primary outcome as soon as the last buffer of the body has been read.
+     */
+    private static final class ChecksumResponse extends ServerHttpResponseDecorator {
+
+        private final CRC32 checksum = new CRC32();
+        private final long start = System.nanoTime();
+        private final Sinks.One<Outcome> outcome;
+
+        private ChecksumResponse(ServerHttpResponse delegate, Sinks.One<Outcome> outcome) {
+            super(delegate);
+            this.outcome = outcome;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            return super.writeWith(Flux.from(body)
+                    .doOnNext(buffer -> update(checksum, buffer))
+                    .doOnComplete(this::complete));
+        }
+
+        @Override
+        public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+            return super.writeAndFlushWith(Flux.from(body)
+                    .map(publisher -> Flux.from(publisher).doOnNext(buffer -> update(checksum, buffer)))
+                    .doOnComplete(this::complete));
+        }
+
+        @Override
+        public Mono<Void> setComplete() {
+            return super.setComplete().doOnSuccess(ignored -> complete());
+        }
+
+        private void complete() {
+            HttpStatusCode status = getStatusCode();
+            outcome.tryEmitValue(new Outcome(status != null ? status.value() : 0, checksum.getValue(),
+                    System.nanoTime() - start));
+        }
+    }
+
+    public static class Config {
+
+        private String shadowServiceId;
+        private double sampleRate;
+        private int maxInFlight = 50;
+        private Duration shadowTimeout = Duration.ofSeconds(5);
+
+        public String getShadowServiceId() {
+            return shadowServiceId;
+        }
+
+        public Config setShadowServiceId(String shadowServiceId) {
+            this.shadowServiceId = shadowServiceId;
+            return this;
+        }
+
+        public double getSampleRate() {
+            return sampleRate;
+        }
+
+        public Config setSampleRate(double sampleRate) {
+            this.sampleRate = sampleRate;
+            return this;
+        }
+
+        public int getMaxInFlight() {
+            return maxInFlight;
+        }
+
+        public Config setMaxInFlight(int maxInFlight) {
+            this.maxInFlight = maxInFlight;
+            return this;
+        }
+
+        public Duration getShadowTimeout() {
+            return shadowTimeout;
+        }
+
+        public Config setShadowTimeout(Duration shadowTimeout) {
+            this.shadowTimeout = shadowTimeout;
+            return this;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.gholap.gatewayserver.filter;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Retries failed idempotent requests only while the route has retry budget left. Every request
+ * that ends successfully deposits a fraction of a token, every retry withdraws a whole one, and a
+ * small floor keeps a trickle of retries possible on quiet routes. When an upstream degrades the
+ * budget drains quickly, so retries add at most that fraction of extra load instead of
+ * multiplying it by the retry count.
+ */
+@Component
+public class RetryBudgetGatewayFilterFactory extends AbstractGatewayFilterFactory<RetryBudgetGatewayFilterFactory.Config> {
+
+    /** Methods that are safe to send twice and carry no body the gateway would have to replay. */
+    private static final Set<HttpMethod> IDEMPOTENT_METHODS = Set.of(HttpMethod.GET, HttpMethod.HEAD, HttpMethod.OPTIONS);
+
+    private final MeterRegistry meterRegistry;
+
+    public RetryBudgetGatewayFilterFactory(MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        RetryBudget budget = new RetryBudget(config);
+        return (exchange, chain) -> {
+            if (!IDEMPOTENT_METHODS.contains(exchange.getRequest().getMethod())) {
+                return chain.filter(exchange);
+            }
+            String routeId = routeId(exchange);
+            return attempt(exchange, chain, config, budget, routeId, 0);
+        };
+    }
+
+    private Mono<Void> attempt(ServerWebExchange exchange, GatewayFilterChain chain, Config config,
+                               RetryBudget budget, String routeId, int retry) {
+        return chain.filter(exchange)
+                .then(Mono.defer(() -> {
+                    HttpStatusCode status = exchange.getResponse().getStatusCode();
+                    if (status == null || !status.is5xxServerError()) {
+                        budget.deposit();
+                        recordAttempts(routeId, retry);
+                        return Mono.empty();
+                    }
+                    return retryOrGiveUp(exchange, chain, config, budget, routeId, retry, Mono.empty());
+                }))
+                .onErrorResume(ex -> ex instanceof IOException || ex instanceof TimeoutException,
+                        ex -> retryOrGiveUp(exchange, chain, config, budget, routeId, retry, Mono.error(ex)));
+    }
+
+    private Mono<Void> retryOrGiveUp(ServerWebExchange exchange, GatewayFilterChain chain, Config config,
+                                     RetryBudget budget, String routeId, int retry, Mono<Void> giveUp) {
+        if (retry >= config.getRetries() || exchange.getResponse().isCommitted()) {
+            recordAttempts(routeId, retry);
+            return giveUp;
+        }
+        if (!budget.tryWithdraw()) {
+            meterRegistry.counter("gateway.retry.budget.exhausted", "route", routeId).increment();
+            recordAttempts(routeId, retry);
+            return giveUp;
+        }
+        meterRegistry.counter("gateway.retry.attempts", "route", routeId).increment();
+        ServerWebExchangeUtils.reset(exchange);
+        long backoffMillis = Math.min(config.getMaxBackoff().toMillis(), config.getFirstBackoff().toMillis() << retry);
+        return Mono.delay(Duration.ofMillis(backoffMillis))
+                .then(Mono.defer(() -> attempt(exchange, chain, config, budget, routeId, retry + 1)));
+    }
+
+    /** Upstream calls per client request; its mean is the amplification factor of the route. */
+    private void recordAttempts(String routeId, int retries) {
+        DistributionSummary.builder("gateway.retry.amplification")
+                .description("Upstream attempts per client request")
+                .tag("route", routeId)
+                .register(meterRegistry)
+                .record(retries + 1);
+    }
+
+    private static String routeId(ServerWebExchange exchange) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        return route != null ? route.getId() : "none";
+    }
+
+    private static final class RetryBudget {
+
+        private final double depositPerRequest;
+        private final double minRetriesPerSecond;
+        private final double maxBalance;
+        private double balance;
+        private long lastRefillNanos = System.nanoTime();
+
+        private RetryBudget(Config config) {
+            this.depositPerRequest = config.getRetryRatio();
+            this.minRetriesPerSecond = config.getMinRetriesPerSecond();
+            this.maxBalance = config.getMaxBalance();
+            this.balance = maxBalance;
+        }
+
+        private synchronized void deposit() {
+            balance = Math.min(maxBalance, balance + depositPerRequest);
+        }
+
+        private synchronized boolean tryWithdraw() {
+            long now = System.nanoTime();
+            balance = Math.min(maxBalance, balance + (now - lastRefillNanos) / 1e9 * minRetriesPerSecond);
+            lastRefillNanos = now;
+            if (balance < 1) {
+                return false;
+            }
+            balance -= 1;
+            return true;
+        }
+    }
+
+    public static class Config {
+
+        private int retries = 3;
+        private double retryRatio = 0.2;
+        private double minRetriesPerSecond = 1;
+        private double maxBalance = 10;
+        private Duration firstBackoff = Duration.ofMillis(100);
+        private Duration maxBackoff = Duration.ofMillis(1000);
+
+        public int getRetries() {
+            return retries;
+        }
+
+        public Config setRetries(int retries) {
+            this.retries = retries;
+            return this;
+        }
+
+        public double getRetryRatio() {
+            return retryRatio;
+        }
+
+        public Config setRetryRatio(double retryRatio) {
+            this.retryRatio = retryRatio;
+            return this;
+        }
+
+        public double getMinRetriesPerSecond() {
+            return minRetriesPerSecond;
+        }
+
+        public Config setMinRetriesPerSecond(double minRetriesPerSecond) {
+            this.minRetriesPerSecond = minRetriesPerSecond;
+            return this;
+        }
+
+        public double getMaxBalance() {
+            return maxBalance;
+        }
+
+        public Config setMaxBalance(double maxBalance) {
+            this.maxBalance = maxBalance;
+            return this;
+        }
+
+        public Duration getFirstBackoff() {
+            return firstBackoff;
+        }
+
+        public Config setFirstBackoff(Duration firstBackoff) {
+            this.firstBackoff = firstBackoff;
+            return this;
+        }
+
+        public Duration getMaxBackoff() {
+            return maxBackoff;
+        }
+
+        public Config setMaxBackoff(Duration maxBackoff) {
+            this.maxBackoff = maxBackoff;
+            return this;
+        }
+    }
+}
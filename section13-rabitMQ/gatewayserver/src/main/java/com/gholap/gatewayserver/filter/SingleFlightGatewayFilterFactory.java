@@ -0,0 +1,228 @@
+package com.gholap.gatewayserver.filter;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.nio.ByteBuffer;
+import java.security.Principal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Collapses concurrent identical GETs into one upstream call. The first request for a key
+ * (route, path, query and caller) is forwarded as usual and its response is captured; requests
+ * arriving while it is in flight wait for that response and get a copy of it. A follower that
+ * waits longer than maxWait, or arrives when maxFollowers are already waiting, is simply
+ * forwarded on its own, as is everybody when the leader fails. Followers are released as soon as
+ * the leader's body has been read, while it is still being written to the leader's client. The
+ * filter is ordered ahead of NettyWriteResponseFilter, otherwise the body would bypass the capture.
+ */
+@Component
+public class SingleFlightGatewayFilterFactory extends AbstractGatewayFilterFactory<SingleFlightGatewayFilterFactory.Config> {
+
+    private static final Set<String> SKIPPED_HEADERS = Set.of(HttpHeaders.CONTENT_LENGTH.toLowerCase(),
+            HttpHeaders.TRANSFER_ENCODING.toLowerCase(), HttpHeaders.CONNECTION.toLowerCase(),
+            HttpHeaders.SET_COOKIE.toLowerCase(), FilterUtility.CORRELATION_ID.toLowerCase(),
+            LatencyMetricsFilter.SERVER_TIMING.toLowerCase());
+
+    private final ConcurrentHashMap<String, Flight> flights = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+
+    public SingleFlightGatewayFilterFactory(MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        List<PathPattern> paths = config.getPaths().stream().map(PathPatternParser.defaultInstance::parse).toList();
+        return new OrderedGatewayFilter((exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            if (request.getMethod() != HttpMethod.GET
+                    || (!paths.isEmpty() && paths.stream().noneMatch(path -> path.matches(request.getPath().pathWithinApplication())))) {
+                return chain.filter(exchange);
+            }
+            return exchange.getPrincipal()
+                    .map(Principal::getName)
+                    .defaultIfEmpty("anonymous")
+                    .flatMap(principal -> coalesce(exchange, chain, config, flightKey(exchange, principal)));
+        }, FilterUtility.RESPONSE_DECORATOR_ORDER);
+    }
+
+    private Mono<Void> coalesce(ServerWebExchange exchange, GatewayFilterChain chain, Config config, String key) {
+        String routeId = routeId(exchange);
+        Flight flight = new Flight();
+        Flight leader = flights.putIfAbsent(key, flight);
+        if (leader == null) {
+            count(routeId, "leader");
+            return chain.filter(exchange.mutate().response(new CapturingResponse(exchange, flight)).build())
+                    .doFinally(signalType -> {
+                        flights.remove(key, flight);
+                        flight.complete();
+                        DistributionSummary.builder("gateway.singleflight.collapsed")
+                                .description("Requests served by one upstream call")
+                                .tag("route", routeId)
+                                .register(meterRegistry)
+                                .record(flight.followers.get() + 1);
+                    });
+        }
+        if (leader.followers.incrementAndGet() > config.getMaxFollowers()) {
+            leader.followers.decrementAndGet();
+            count(routeId, "bypass");
+            return chain.filter(exchange);
+        }
+        count(routeId, "follower");
+        return leader.response.asMono()
+                .timeout(config.getMaxWait())
+                .flatMap(shared -> write(exchange.getResponse(), shared))
+                .onErrorResume(ex -> {
+                    count(routeId, "fallback");
+                    return chain.filter(exchange);
+                });
+    }
+
+    private static Mono<Void> write(ServerHttpResponse response, SharedResponse shared) {
+        response.setStatusCode(shared.status());
+        response.getHeaders().addAll(shared.headers());
+        response.getHeaders().setContentLength(shared.body().length);
+        return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(shared.body())));
+    }
+
+    private void count(String routeId, String role) {
+        meterRegistry.counter("gateway.singleflight.requests", "route", routeId, "role", role).increment();
+    }
+
+    private static String flightKey(ServerWebExchange exchange, String principal) {
+        ServerHttpRequest request = exchange.getRequest();
+        String query = request.getURI().getRawQuery();
+        return routeId(exchange) + ' ' + request.getPath().value() + (query != null ? "?" + query : "") + '|' + principal;
+    }
+
+    private static String routeId(ServerWebExchange exchange) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        return route != null ? route.getId() : "none";
+    }
+
+    private static final class Flight {
+
+        private final Sinks.One<SharedResponse> response = Sinks.one();
+        private final AtomicInteger followers = new AtomicInteger();
+
+        private void share(SharedResponse sharedResponse) {
+            response.tryEmitValue(sharedResponse);
+        }
+
+        /**
+         * Releases followers with an error if the leader finished without a shareable response; a
+         * no-op once the captured body has been shared.
+         */
+        private void complete() {
+            response.tryEmitError(new IllegalStateException("Leader request produced no shareable response"));
+        }
+    }
+
+    private static final class CapturingResponse extends ServerHttpResponseDecorator {
+
+        private final ServerWebExchange exchange;
+        private final Flight flight;
+
+        private CapturingResponse(ServerWebExchange exchange, Flight flight) {
+            super(exchange.getResponse());
+            this.exchange = exchange;
+            this.flight = flight;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            return DataBufferUtils.join(body).flatMap(joined -> {
+                HttpStatusCode status = getStatusCode();
+                // a circuit breaker fallback never reached the upstream and is not worth sharing
+                if (status != null && !status.is5xxServerError()
+                        && exchange.getAttribute(LatencyMetricsFilter.UPSTREAM_NANOS_ATTR) != null) {
+                    byte[] bytes = new byte[joined.readableByteCount()];
+                    joined.toByteBuffer(joined.readPosition(), ByteBuffer.wrap(bytes), 0, bytes.length);
+                    flight.share(new SharedResponse(status, sharedHeaders(getHeaders()), bytes));
+                }
+                return super.writeWith(Mono.just(joined));
+            });
+        }
+
+        @Override
+        public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+            return writeWith(Flux.from(body).flatMapSequential(p -> p));
+        }
+    }
+
+    private static HttpHeaders sharedHeaders(HttpHeaders headers) {
+        HttpHeaders sharedHeaders = new HttpHeaders();
+        headers.forEach((name, values) -> {
+            if (!SKIPPED_HEADERS.contains(name.toLowerCase())) {
+                sharedHeaders.put(name, new ArrayList<>(values));
+            }
+        });
+        return HttpHeaders.readOnlyHttpHeaders(sharedHeaders);
+    }
+
+    private record SharedResponse(HttpStatusCode status, HttpHeaders headers, byte[] body) {
+    }
+
+    public static class Config {
+
+        private List<String> paths = new ArrayList<>();
+        private Duration maxWait = Duration.ofSeconds(2);
+        private int maxFollowers = 1000;
+
+        public List<String> getPaths() {
+            return paths;
+        }
+
+        public Config setPaths(List<String> paths) {
+            this.paths = paths;
+            return this;
+        }
+
+        public Duration getMaxWait() {
+            return maxWait;
+        }
+
+        public Config setMaxWait(Duration maxWait) {
+            this.maxWait = maxWait;
+            return this;
+        }
+
+        public int getMaxFollowers() {
+            return maxFollowers;
+        }
+
+        public Config setMaxFollowers(int maxFollowers) {
+            this.maxFollowers = maxFollowers;
+            return this;
+        }
+    }
+}
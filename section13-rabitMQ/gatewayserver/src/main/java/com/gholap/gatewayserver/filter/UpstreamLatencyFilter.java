@@ -0,0 +1,29 @@
+package com.gholap.gatewayserver.filter;
+
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyRoutingFilter;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Runs right before the Netty routing filter, whose chain completes once the upstream response
+ * headers have been received. The elapsed time is left on the exchange for LatencyMetricsFilter.
+ */
+@Component
+public class UpstreamLatencyFilter implements GlobalFilter, Ordered {
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        long upstreamStart = System.nanoTime();
+        return chain.filter(exchange).doOnTerminate(() -> exchange.getAttributes()
+                .put(LatencyMetricsFilter.UPSTREAM_NANOS_ATTR, System.nanoTime() - upstreamStart));
+    }
+
+    @Override
+    public int getOrder() {
+        return NettyRoutingFilter.ORDER - 1;
+    }
+}
@@ -0,0 +1,35 @@
+package com.gholap.gatewayserver.loadbalancer;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * /actuator/canary lists the canary of every service; POST /actuator/canary/{serviceId} with
+ * {"version": "...", "weight": 10} starts, adjusts or (weight 0) stops one.
+ */
+@Component
+@Endpoint(id = "canary")
+public class CanaryEndpoint {
+
+    private final CanaryManager canaryManager;
+
+    public CanaryEndpoint(CanaryManager canaryManager) {
+        this.canaryManager = canaryManager;
+    }
+
+    @ReadOperation
+    public Map<String, Object> canaries() {
+        return canaryManager.describe();
+    }
+
+    @WriteOperation
+    public Map<String, Object> setWeight(@Selector String serviceId, String version, int weight) {
+        canaryManager.setWeight(serviceId, version, weight);
+        return canaryManager.describe();
+    }
+}
@@ -0,0 +1,200 @@
+package com.gholap.gatewayserver.loadbalancer;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Weighted canary releases keyed on the "version" entry of the Eureka instance metadata. For a
+ * service with a canary, PeakEwmaLoadBalancer sends the configured percentage of requests to the
+ * instances of the canary version and the rest to all other instances. Latency and errors of both
+ * groups are collected per evaluation window; when the canary's p99 or error rate regresses beyond
+ * the configured tolerance against the baseline, its weight is dropped to zero automatically.
+ * Failed calls, including timed-out and cancelled ones, count as errors and also enter the p99 at
+ * the time they took, so a canary that hangs until the caller gives up cannot look fast.
+ */
+@Component
+public class CanaryManager implements DisposableBean {
+
+    static final String VERSION_METADATA_KEY = "version";
+    private static final Logger logger = LoggerFactory.getLogger(CanaryManager.class);
+
+    private final Map<String, Canary> canaries = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+    private final double p99Tolerance;
+    private final double errorRateTolerance;
+    private final int minSamples;
+    private final Disposable evaluation;
+
+    public CanaryManager(MeterRegistry meterRegistry,
+                         @Value("${gateway.canary.p99-tolerance:0.2}") double p99Tolerance,
+                         @Value("${gateway.canary.error-rate-tolerance:0.02}") double errorRateTolerance,
+                         @Value("${gateway.canary.min-samples:50}") int minSamples,
+                         @Value("${gateway.canary.evaluation-interval:10s}") Duration evaluationInterval) {
+        this.meterRegistry = meterRegistry;
+        this.p99Tolerance = p99Tolerance;
+        this.errorRateTolerance = errorRateTolerance;
+        this.minSamples = minSamples;
+        this.evaluation = Flux.interval(evaluationInterval)
+                .onBackpressureDrop()
+                .subscribe(tick -> evaluate());
+    }
+
+    public void setWeight(String serviceId, String version, int weightPercent) {
+        Canary canary = canaries.computeIfAbsent(serviceId.toLowerCase(Locale.ROOT), this::newCanary);
+        synchronized (canary) {
+            if (!version.equals(canary.version)) {
+                canary.canaryWindow.reset();
+                canary.baselineWindow.reset();
+                canary.rolledBack = false;
+            }
+            canary.version = version;
+            canary.weight = Math.max(0, Math.min(100, weightPercent));
+        }
+    }
+
+    public Map<String, Object> describe() {
+        Map<String, Object> description = new LinkedHashMap<>();
+        canaries.forEach((serviceId, canary) -> {
+            Map<String, Object> state = new LinkedHashMap<>();
+            state.put("version", canary.version);
+            state.put("weight", canary.weight);
+            state.put("rolledBack", canary.rolledBack);
+            description.put(serviceId, state);
+        });
+        return description;
+    }
+
+    /**
+     * Narrows the instance list to the canary or the baseline group for one request.
+     */
+    List<ServiceInstance> select(String serviceId, List<ServiceInstance> instances) {
+        Canary canary = canaries.get(serviceId.toLowerCase(Locale.ROOT));
+        if (canary == null || canary.version == null) {
+            return instances;
+        }
+        boolean toCanary = ThreadLocalRandom.current().nextInt(100) < canary.weight;
+        List<ServiceInstance> group = instances.stream()
+                .filter(instance -> isCanary(canary, instance) == toCanary)
+                .toList();
+        return group.isEmpty() ? instances : group;
+    }
+
+    void record(String serviceId, ServiceInstance instance, long rttNanos, boolean failed) {
+        Canary canary = canaries.get(serviceId.toLowerCase(Locale.ROOT));
+        if (canary == null || canary.version == null) {
+            return;
+        }
+        (isCanary(canary, instance) ? canary.canaryWindow : canary.baselineWindow).record(rttNanos, failed);
+    }
+
+    private static boolean isCanary(Canary canary, ServiceInstance instance) {
+        return canary.version.equals(instance.getMetadata().get(VERSION_METADATA_KEY));
+    }
+
+    void evaluate() {
+        canaries.forEach(this::evaluate);
+    }
+
+    private void evaluate(String serviceId, Canary canary) {
+        if (canary.weight == 0 || canary.canaryWindow.count() < minSamples || canary.baselineWindow.count() < minSamples) {
+            return;
+        }
+        Window.Snapshot canaryStats = canary.canaryWindow.snapshotAndReset();
+        Window.Snapshot baselineStats = canary.baselineWindow.snapshotAndReset();
+        boolean slower = canaryStats.p99Nanos() > baselineStats.p99Nanos() * (1 + p99Tolerance);
+        boolean failing = canaryStats.errorRate() > baselineStats.errorRate() + errorRateTolerance;
+        if (slower || failing) {
+            logger.warn("Rolling back canary {} of {}: p99 {}ms vs {}ms, error rate {} vs {}", canary.version, serviceId,
+                    canaryStats.p99Nanos() / 1_000_000, baselineStats.p99Nanos() / 1_000_000,
+                    canaryStats.errorRate(), baselineStats.errorRate());
+            canary.weight = 0;
+            canary.rolledBack = true;
+            meterRegistry.counter("loadbalancer.canary.rollback", "service", serviceId).increment();
+        }
+    }
+
+    private Canary newCanary(String serviceId) {
+        Canary canary = new Canary();
+        Gauge.builder("loadbalancer.canary.weight", canary, c -> c.weight)
+                .description("Percentage of requests sent to the canary version")
+                .tag("service", serviceId)
+                .register(meterRegistry);
+        return canary;
+    }
+
+    @Override
+    public void destroy() {
+        evaluation.dispose();
+    }
+
+    private static final class Canary {
+        private final Window canaryWindow = new Window();
+        private final Window baselineWindow = new Window();
+        private volatile String version;
+        private volatile int weight;
+        private volatile boolean rolledBack;
+    }
+
+    /**
+     * Latency and error samples since the last evaluation; keeps at most the latest 2048 latencies,
+     * failed calls included.
+     */
+    private static final class Window {
+
+        private final long[] latencies = new long[2048];
+        private int size;
+        private int next;
+        private long requests;
+        private long errors;
+
+        synchronized void record(long rttNanos, boolean failed) {
+            requests++;
+            if (failed) {
+                errors++;
+            }
+            latencies[next] = rttNanos;
+            next = (next + 1) % latencies.length;
+            size = Math.min(size + 1, latencies.length);
+        }
+
+        synchronized long count() {
+            return requests;
+        }
+
+        synchronized void reset() {
+            size = 0;
+            next = 0;
+            requests = 0;
+            errors = 0;
+        }
+
+        synchronized Snapshot snapshotAndReset() {
+            long[] sorted = Arrays.copyOf(latencies, size);
+            Arrays.sort(sorted);
+            long p99 = sorted.length == 0 ? 0 : sorted[Math.min(sorted.length - 1, (int) Math.ceil(sorted.length * 0.99) - 1)];
+            Snapshot snapshot = new Snapshot(p99, requests == 0 ? 0 : (double) errors / requests);
+            reset();
+            return snapshot;
+        }
+
+        record Snapshot(long p99Nanos, double errorRate) {
+        }
+    }
+}
@@ -0,0 +1,317 @@
+package com.gholap.gatewayserver.loadbalancer;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.cloud.client.loadbalancer.TimedRequestContext;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Mono;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Power-of-two-choices balancer: picks two random instances and sends the request to the one with
+ * the lower cost, where cost = peak-EWMA latency x (outstanding requests + 1) / weight. The EWMA
+ * jumps to any slower sample straight away and only decays back gradually, so a pod that starts
+ * stalling is avoided after its first slow responses. The weight comes from the "weight" key of
+ * the Eureka instance metadata and defaults to 1.
+ * <p>
+ * Requests whose exchange carries the {@link #HASH_KEY_ATTRIBUTE} attribute (set by
+ * HashRoutingGatewayFilterFactory, never by the client) are instead placed by rendezvous hashing
+ * of that key, so the same key keeps landing on the same instance and only the keys of an
+ * instance that joins or leaves move. An instance already holding more than 1.25x the average
+ * outstanding load is skipped in favour of the key's next-highest instance.
+ * <p>
+ * Before either strategy runs, CanaryManager may narrow the list to the canary or the baseline
+ * version group.
+ * <p>
+ * The balancer is also registered as the LoadBalancerLifecycle of its client, which is how it
+ * learns when requests start and finish. The lifecycle is not told about cancelled calls (time
+ * limiter, client disconnect), so each chosen instance is handed out as a {@link TrackedResponse}
+ * that LoadBalancerReleaseFilter cancels; whichever of completion and cancellation comes first
+ * releases the request, exactly once.
+ */
+public class PeakEwmaLoadBalancer implements ReactorServiceInstanceLoadBalancer,
+        LoadBalancerLifecycle<Object, Object, ServiceInstance> {
+
+    public static final String HASH_KEY_ATTRIBUTE = PeakEwmaLoadBalancer.class.getName() + ".hashKey";
+    static final String WEIGHT_METADATA_KEY = "weight";
+    private static final double LOAD_BOUND = 1.25;
+    private static final double DECAY_NANOS = 10_000_000_000d;
+    private static final double MIN_LATENCY_NANOS = 1_000_000d;
+
+    private final ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider;
+    private final String serviceId;
+    private final MeterRegistry meterRegistry;
+    private final CanaryManager canaryManager;
+    private final Map<String, InstanceStats> stats = new ConcurrentHashMap<>();
+
+    public PeakEwmaLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider,
+                                String serviceId, MeterRegistry meterRegistry, CanaryManager canaryManager) {
+        this.serviceInstanceListSupplierProvider = serviceInstanceListSupplierProvider;
+        this.serviceId = serviceId;
+        this.meterRegistry = meterRegistry;
+        this.canaryManager = canaryManager;
+    }
+
+    @Override
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier = serviceInstanceListSupplierProvider
+                .getIfAvailable(NoopServiceInstanceListSupplier::new);
+        String hashKey = hashKey(request);
+        return supplier.get(request).next().map(instances -> choose(instances, hashKey));
+    }
+
+    private Response<ServiceInstance> choose(List<ServiceInstance> allInstances, String hashKey) {
+        if (allInstances.isEmpty()) {
+            return new EmptyResponse();
+        }
+        forgetGoneInstances(allInstances);
+        List<ServiceInstance> instances = canaryManager.select(serviceId, allInstances);
+        if (instances.size() == 1) {
+            return new TrackedResponse(this, instances.get(0));
+        }
+        if (hashKey != null) {
+            return new TrackedResponse(this, chooseByHash(instances, hashKey));
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(instances.size());
+        int second = random.nextInt(instances.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+        ServiceInstance a = instances.get(first);
+        ServiceInstance b = instances.get(second);
+        long now = System.nanoTime();
+        return new TrackedResponse(this, stats(a).cost(now) <= stats(b).cost(now) ? a : b);
+    }
+
+    private ServiceInstance chooseByHash(List<ServiceInstance> instances, String hashKey) {
+        int totalOutstanding = 0;
+        for (ServiceInstance instance : instances) {
+            totalOutstanding += stats(instance).outstanding.get();
+        }
+        double maxOutstanding = Math.ceil(LOAD_BOUND * (totalOutstanding + 1) / instances.size());
+        List<ServiceInstance> ranked = instances.stream()
+                .sorted(Comparator.comparingDouble((ServiceInstance instance) -> rendezvousScore(hashKey, instance)).reversed())
+                .toList();
+        for (ServiceInstance instance : ranked) {
+            if (stats(instance).outstanding.get() < maxOutstanding) {
+                return instance;
+            }
+        }
+        return ranked.get(0);
+    }
+
+    /** Weighted rendezvous score: weight / -ln(u) with u a uniform hash of key and instance. */
+    private static double rendezvousScore(String hashKey, ServiceInstance instance) {
+        long hash = mix(hashKey.hashCode() * 0x9E3779B97F4A7C15L ^ key(instance).hashCode());
+        double uniform = ((hash >>> 11) + 0.5) / (1L << 53);
+        return weight(instance) / -Math.log(uniform);
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static String hashKey(Request<?> request) {
+        if (request.getContext() instanceof RequestDataContext requestDataContext
+                && requestDataContext.getClientRequest() != null) {
+            Object hashKey = requestDataContext.getClientRequest().getAttributes().get(HASH_KEY_ATTRIBUTE);
+            return hashKey instanceof String key ? key : null;
+        }
+        return null;
+    }
+
+    @Override
+    public boolean supports(Class requestContextClass, Class responseClass, Class serverTypeClass) {
+        return ServiceInstance.class.isAssignableFrom(serverTypeClass);
+    }
+
+    @Override
+    public void onStart(Request<Object> request) {
+    }
+
+    @Override
+    public void onStartRequest(Request<Object> request, Response<ServiceInstance> lbResponse) {
+        long now = System.nanoTime();
+        if (request.getContext() instanceof TimedRequestContext timedRequestContext) {
+            timedRequestContext.setRequestStartTime(now);
+        }
+        if (lbResponse.hasServer()) {
+            stats(lbResponse.getServer()).outstanding.incrementAndGet();
+        }
+        if (lbResponse instanceof TrackedResponse trackedResponse) {
+            trackedResponse.startNanos = now;
+        }
+    }
+
+    @Override
+    public void onComplete(CompletionContext<Object, ServiceInstance, Object> completionContext) {
+        Response<ServiceInstance> lbResponse = completionContext.getLoadBalancerResponse();
+        if (lbResponse == null || !lbResponse.hasServer()) {
+            return;
+        }
+        long startNanos = 0;
+        if (lbResponse instanceof TrackedResponse trackedResponse) {
+            if (!trackedResponse.finish()) {
+                return;
+            }
+            startNanos = trackedResponse.startNanos;
+        } else if (completionContext.getLoadBalancerRequest() != null
+                && completionContext.getLoadBalancerRequest().getContext() instanceof TimedRequestContext timedRequestContext) {
+            startNanos = timedRequestContext.getRequestStartTime();
+        }
+        boolean failed = completionContext.status() == CompletionContext.Status.FAILED;
+        release(lbResponse.getServer(), startNanos, failed,
+                failed || (completionContext.getClientResponse() instanceof ResponseData responseData
+                        && responseData.getHttpStatus() != null && responseData.getHttpStatus().is5xxServerError()));
+    }
+
+    /**
+     * Releases a call that was cancelled before the lifecycle heard back, counting it as a failed
+     * sample at its elapsed time. Does nothing when the call already completed.
+     */
+    void cancelled(TrackedResponse trackedResponse) {
+        if (trackedResponse.finish()) {
+            release(trackedResponse.getServer(), trackedResponse.startNanos, true, true);
+        }
+    }
+
+    private void release(ServiceInstance server, long startNanos, boolean failed, boolean error) {
+        // never recreate stats here: a forgotten instance would come back with a negative count
+        InstanceStats instanceStats = stats.get(key(server));
+        if (instanceStats != null) {
+            instanceStats.outstanding.decrementAndGet();
+        }
+        if (startNanos > 0) {
+            long now = System.nanoTime();
+            long rtt = now - startNanos;
+            if (instanceStats != null) {
+                // a failed call counts as very slow so the instance is avoided until it recovers
+                instanceStats.observe(failed ? Math.max(rtt, (long) DECAY_NANOS / 10) : rtt, now);
+            }
+            canaryManager.record(serviceId, server, rtt, error);
+        }
+    }
+
+    int outstanding(ServiceInstance instance) {
+        InstanceStats instanceStats = stats.get(key(instance));
+        return instanceStats != null ? instanceStats.outstanding.get() : 0;
+    }
+
+    private InstanceStats stats(ServiceInstance instance) {
+        return stats.computeIfAbsent(key(instance), key -> new InstanceStats(key, weight(instance)));
+    }
+
+    private void forgetGoneInstances(List<ServiceInstance> instances) {
+        if (stats.size() <= instances.size()) {
+            return;
+        }
+        Set<String> current = instances.stream().map(PeakEwmaLoadBalancer::key).collect(Collectors.toSet());
+        stats.entrySet().removeIf(entry -> {
+            // an instance that left with requests still in flight is forgotten once they are released
+            if (current.contains(entry.getKey()) || entry.getValue().outstanding.get() > 0) {
+                return false;
+            }
+            meterRegistry.remove(entry.getValue().gauge);
+            return true;
+        });
+    }
+
+    private static String key(ServiceInstance instance) {
+        return instance.getHost() + ":" + instance.getPort();
+    }
+
+    private static double weight(ServiceInstance instance) {
+        String weight = instance.getMetadata().get(WEIGHT_METADATA_KEY);
+        try {
+            return weight != null ? Math.max(0.01, Double.parseDouble(weight)) : 1;
+        } catch (NumberFormatException ex) {
+            return 1;
+        }
+    }
+
+    private final class InstanceStats {
+
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private final double weight;
+        private final Gauge gauge;
+        private double ewmaNanos;
+        private long lastUpdateNanos = System.nanoTime();
+
+        private InstanceStats(String instance, double weight) {
+            this.weight = weight;
+            this.gauge = Gauge.builder("loadbalancer.instance.score", this, stats -> stats.cost(System.nanoTime()) / 1_000_000)
+                    .description("Peak-EWMA cost of an instance, lower is preferred")
+                    .tag("service", serviceId)
+                    .tag("instance", instance)
+                    .register(meterRegistry);
+        }
+
+        private synchronized void observe(long rttNanos, long now) {
+            if (rttNanos > ewmaNanos) {
+                ewmaNanos = rttNanos;
+            } else {
+                double decay = Math.exp(-(now - lastUpdateNanos) / DECAY_NANOS);
+                ewmaNanos = ewmaNanos * decay + rttNanos * (1 - decay);
+            }
+            lastUpdateNanos = now;
+        }
+
+        private synchronized double cost(long now) {
+            // with nothing heard for a while the latency estimate fades, so idle instances get probed again;
+            // the floor keeps outstanding requests counting for instances that have no samples yet
+            double decayed = Math.max(MIN_LATENCY_NANOS, ewmaNanos * Math.exp(-(now - lastUpdateNanos) / DECAY_NANOS));
+            return decayed * (outstanding.get() + 1) / weight;
+        }
+    }
+
+    /**
+     * The instance chosen for one request. Remembers when the request started and whether it has
+     * been released, so completion and cancellation release it exactly once between them.
+     */
+    public static final class TrackedResponse extends DefaultResponse {
+
+        private final PeakEwmaLoadBalancer loadBalancer;
+        private final AtomicBoolean finished = new AtomicBoolean();
+        private volatile long startNanos;
+
+        private TrackedResponse(PeakEwmaLoadBalancer loadBalancer, ServiceInstance serviceInstance) {
+            super(serviceInstance);
+            this.loadBalancer = loadBalancer;
+        }
+
+        /** Releases the request as a failure unless it has completed already. */
+        public void cancel() {
+            if (startNanos > 0) {
+                loadBalancer.cancelled(this);
+            }
+        }
+
+        private boolean finish() {
+            return finished.compareAndSet(false, true);
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.gholap.gatewayserver.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.cloud.gateway.filter.ratelimit.RateLimiter;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Two-tier rate limiter. Every decision is taken locally against an in-memory token bucket per
+ * key, so no request waits on Redis. In the background the tokens consumed on this node are added
+ * to a per-second counter in Redis; once the counter shows that all gateway nodes together have
+ * used up the global budget for the current second, the key is blocked locally until the next
+ * second. The global budget is therefore enforced approximately (within one sync interval), and
+ * a slow or unavailable Redis only degrades enforcement to per-node limits. Only keys that consumed
+ * tokens since the last sync cost a Redis round trip, so Redis load follows the request rate rather
+ * than the number of distinct callers. Since the key comes from a client-supplied header, at most
+ * MAX_KEYS keys are tracked; keys beyond that share one bucket per route.
+ */
+public class HybridRateLimiter implements RateLimiter<Object>, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(HybridRateLimiter.class);
+    private static final String KEY_PREFIX = "hybrid_rate_limiter.";
+    private static final long WINDOW_MILLIS = 1000;
+    private static final int MAX_KEYS = 100_000;
+    private static final String OVERFLOW_KEY = "_overflow";
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final int replenishRate;
+    private final int burstCapacity;
+    private final int requestedTokens;
+    private final Map<String, Object> config = new HashMap<>();
+    private final ConcurrentHashMap<String, KeyState> states = new ConcurrentHashMap<>();
+    private final Counter localAllowed;
+    private final Counter localDenied;
+    private final Counter remoteDenied;
+    private final Disposable reconciliation;
+
+    public HybridRateLimiter(ReactiveStringRedisTemplate redisTemplate, MeterRegistry meterRegistry,
+                             int replenishRate, int burstCapacity, int requestedTokens, Duration syncInterval) {
+        this.redisTemplate = redisTemplate;
+        this.replenishRate = replenishRate;
+        this.burstCapacity = burstCapacity;
+        this.requestedTokens = requestedTokens;
+        this.config.put("replenishRate", replenishRate);
+        this.config.put("burstCapacity", burstCapacity);
+        this.config.put("requestedTokens", requestedTokens);
+        this.localAllowed = decisions(meterRegistry, "local", "allowed");
+        this.localDenied = decisions(meterRegistry, "local", "denied");
+        this.remoteDenied = decisions(meterRegistry, "remote", "denied");
+        this.reconciliation = Flux.interval(syncInterval, syncInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> reconcile(), 1)
+                .subscribe();
+    }
+
+    private static Counter decisions(MeterRegistry meterRegistry, String source, String result) {
+        return Counter.builder("gateway.ratelimiter.decisions")
+                .description("Rate limiter decisions by where they were taken")
+                .tag("source", source)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<Response> isAllowed(String routeId, String id) {
+        long now = System.currentTimeMillis();
+        String key = routeId + "." + id;
+        KeyState state = states.get(key);
+        if (state == null) {
+            String stateKey = states.size() < MAX_KEYS ? key : routeId + "." + OVERFLOW_KEY;
+            state = states.computeIfAbsent(stateKey, newKey -> new KeyState(burstCapacity, now));
+        }
+        state.lastAccess = now;
+        if (now < state.blockedUntil) {
+            remoteDenied.increment();
+            return Mono.just(new Response(false, headers(0)));
+        }
+        long remaining = state.tryConsume(now);
+        if (remaining < 0) {
+            localDenied.increment();
+            return Mono.just(new Response(false, headers(0)));
+        }
+        state.pending.add(requestedTokens);
+        localAllowed.increment();
+        return Mono.just(new Response(true, headers(remaining)));
+    }
+
+    private Mono<Void> reconcile() {
+        long now = System.currentTimeMillis();
+        long window = now / WINDOW_MILLIS;
+        long windowEnd = (window + 1) * WINDOW_MILLIS;
+        long globalLimit = Math.max(replenishRate, burstCapacity);
+        return Flux.fromIterable(states.entrySet())
+                .flatMap(entry -> {
+                    KeyState state = entry.getValue();
+                    long consumed = state.pending.sumThenReset();
+                    if (consumed == 0) {
+                        // nothing to report; an idle key keeps deciding on its local bucket
+                        if (now - state.lastAccess > 60 * WINDOW_MILLIS) {
+                            states.remove(entry.getKey(), state);
+                        }
+                        return Mono.empty();
+                    }
+                    String redisKey = KEY_PREFIX + entry.getKey() + "." + window;
+                    return redisTemplate.opsForValue().increment(redisKey, consumed)
+                            // only the first write of the window creates the counter and sets its expiry
+                            .flatMap(total -> total == consumed
+                                    ? redisTemplate.expire(redisKey, Duration.ofMillis(2 * WINDOW_MILLIS)).thenReturn(total)
+                                    : Mono.just(total))
+                            .doOnNext(total -> {
+                                if (total >= globalLimit) {
+                                    state.blockedUntil = windowEnd;
+                                }
+                            })
+                            .onErrorResume(ex -> {
+                                // keep the tokens for the next round, decisions stay local meanwhile
+                                state.pending.add(consumed);
+                                return Mono.empty();
+                            });
+                }, 64)
+                .then()
+                .onErrorResume(ex -> {
+                    logger.debug("Rate limiter reconciliation with Redis failed: {}", ex.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    private Map<String, String> headers(long remaining) {
+        Map<String, String> headers = new HashMap<>();
+        headers.put("X-RateLimit-Remaining", Long.toString(remaining));
+        headers.put("X-RateLimit-Replenish-Rate", Integer.toString(replenishRate));
+        headers.put("X-RateLimit-Burst-Capacity", Integer.toString(burstCapacity));
+        headers.put("X-RateLimit-Requested-Tokens", Integer.toString(requestedTokens));
+        return headers;
+    }
+
+    @Override
+    public Map<String, Object> getConfig() {
+        return config;
+    }
+
+    @Override
+    public Class<Object> getConfigClass() {
+        return Object.class;
+    }
+
+    @Override
+    public Object newConfig() {
+        return null;
+    }
+
+    @Override
+    public void destroy() {
+        reconciliation.dispose();
+    }
+
+    private final class KeyState {
+        private final AtomicReference<Bucket> bucket;
+        private final LongAdder pending = new LongAdder();
+        private volatile long blockedUntil;
+        private volatile long lastAccess;
+
+        private KeyState(long tokens, long now) {
+            this.bucket = new AtomicReference<>(new Bucket(tokens, now));
+        }
+
+        /**
+         * Lock-free token bucket: refills by elapsed time and takes requestedTokens with a CAS.
+         * refilledAt only advances by the time the whole refilled tokens account for, so the
+         * fraction of a token accrued since then is carried over to the next call.
+         *
+         * @return tokens left after consuming, or -1 when there were not enough tokens
+         */
+        private long tryConsume(long now) {
+            while (true) {
+                Bucket current = bucket.get();
+                long refill = (now - current.refilledAt) * replenishRate / 1000;
+                long tokens = Math.min(burstCapacity, current.tokens + refill);
+                long refilledAt = tokens == burstCapacity ? now : current.refilledAt + refill * 1000 / replenishRate;
+                if (tokens < requestedTokens) {
+                    return -1;
+                }
+                if (bucket.compareAndSet(current, new Bucket(tokens - requestedTokens, refilledAt))) {
+                    return tokens - requestedTokens;
+                }
+            }
+        }
+    }
+
+    private record Bucket(long tokens, long refilledAt) {
+    }
+}
@@ -0,0 +1,120 @@
+package com.gholap.gatewayserver.benchmark;
+
+import com.gholap.gatewayserver.config.CachingJwtAuthenticationManager;
+import com.gholap.gatewayserver.config.KeycloakRoleConverter;
+import com.gholap.gatewayserver.config.RefreshingJwkSource;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.jwt.NimbusReactiveJwtDecoder;
+import org.springframework.security.oauth2.server.resource.authentication.BearerTokenAuthenticationToken;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+import org.springframework.security.oauth2.server.resource.authentication.JwtReactiveAuthenticationManager;
+import org.springframework.security.oauth2.server.resource.authentication.ReactiveJwtAuthenticationConverterAdapter;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of authenticating a reused Keycloak-style RS256 access token, with and without the
+ * validated-token cache in front of the JwtReactiveAuthenticationManager. Both managers use the
+ * real decoder, RefreshingJwkSource and KeycloakRoleConverter; the JWK set endpoint is stubbed.
+ * <p>
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.gholap.gatewayserver.benchmark.JwtAuthenticationBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class JwtAuthenticationBenchmark {
+
+	private RefreshingJwkSource jwkSource;
+	private JwtReactiveAuthenticationManager uncached;
+	private CachingJwtAuthenticationManager cached;
+	private String token;
+
+	@Setup
+	public void setUp() throws JOSEException {
+		RSAKey rsaKey = new RSAKeyGenerator(2048).keyID("benchmark").generate();
+		String jwkSetJson = new JWKSet(rsaKey.toPublicJWK()).toString();
+		WebClient webClient = WebClient.builder()
+				.exchangeFunction(request -> Mono.just(ClientResponse.create(HttpStatus.OK)
+						.header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+						.body(jwkSetJson)
+						.build()))
+				.build();
+		jwkSource = new RefreshingJwkSource(webClient, "http://keycloak/certs", Duration.ofMinutes(5));
+
+		uncached = new JwtReactiveAuthenticationManager(NimbusReactiveJwtDecoder.withJwkSource(jwkSource).build());
+		JwtAuthenticationConverter converter = new JwtAuthenticationConverter();
+		converter.setJwtGrantedAuthoritiesConverter(new KeycloakRoleConverter());
+		uncached.setJwtAuthenticationConverter(new ReactiveJwtAuthenticationConverterAdapter(converter));
+		cached = new CachingJwtAuthenticationManager(uncached, 10_000, new SimpleMeterRegistry());
+
+		SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(rsaKey.getKeyID()).build(),
+				new JWTClaimsSet.Builder()
+						.subject("benchmark")
+						.expirationTime(new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1)))
+						.claim("realm_access", Map.of("roles", List.of("ACCOUNTS", "CARDS", "LOANS")))
+						.build());
+		jwt.sign(new RSASSASigner(rsaKey));
+		token = jwt.serialize();
+	}
+
+	@TearDown
+	public void tearDown() {
+		jwkSource.destroy();
+	}
+
+	@Benchmark
+	public Authentication withoutCache() {
+		return uncached.authenticate(new BearerTokenAuthenticationToken(token)).block();
+	}
+
+	@Benchmark
+	public Authentication withCache() {
+		return cached.authenticate(new BearerTokenAuthenticationToken(token)).block();
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+				.include(JwtAuthenticationBenchmark.class.getSimpleName())
+				.build()).run();
+	}
+}
@@ -0,0 +1,98 @@
+package com.gholap.gatewayserver.benchmark;
+
+import com.gholap.gatewayserver.ratelimit.HybridRateLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.cloud.gateway.filter.ratelimit.RateLimiter;
+import org.springframework.cloud.gateway.filter.ratelimit.RedisRateLimiter;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency a rate limiter decision adds to a cards request: the hybrid limiter answering from its
+ * local bucket against RedisRateLimiter running its Lua script per request. Limits are set high
+ * enough that every request is allowed, so both paths do the same work on every call. Needs a
+ * Redis on localhost:6379 (the docker-compose redis service is enough).
+ * <p>
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.gholap.gatewayserver.benchmark.RateLimiterLatencyBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RateLimiterLatencyBenchmark {
+
+	private static final String ROUTE_ID = "cards";
+	private static final int RATE = 1_000_000;
+	private static final int USERS = 1_000;
+
+	private LettuceConnectionFactory connectionFactory;
+	private HybridRateLimiter hybridRateLimiter;
+	private RedisRateLimiter redisRateLimiter;
+
+	@Setup
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	public void setUp() {
+		connectionFactory = new LettuceConnectionFactory("localhost", 6379);
+		connectionFactory.afterPropertiesSet();
+		ReactiveStringRedisTemplate redisTemplate = new ReactiveStringRedisTemplate(connectionFactory);
+
+		hybridRateLimiter = new HybridRateLimiter(redisTemplate, new SimpleMeterRegistry(), RATE, RATE, 1,
+				Duration.ofMillis(250));
+		RedisScript<List<Long>> script = (RedisScript) RedisScript.of(
+				new ClassPathResource("META-INF/scripts/request_rate_limiter.lua"), List.class);
+		// the configuration service is only used for route metadata updates, which never happen here
+		redisRateLimiter = new RedisRateLimiter(redisTemplate, script, null);
+		redisRateLimiter.getConfig().put(ROUTE_ID, new RedisRateLimiter.Config()
+				.setReplenishRate(RATE).setBurstCapacity(RATE).setRequestedTokens(1));
+	}
+
+	@TearDown
+	public void tearDown() {
+		hybridRateLimiter.destroy();
+		connectionFactory.destroy();
+	}
+
+	@Benchmark
+	public RateLimiter.Response hybrid() {
+		return hybridRateLimiter.isAllowed(ROUTE_ID, user()).block();
+	}
+
+	@Benchmark
+	public RateLimiter.Response redis() {
+		return redisRateLimiter.isAllowed(ROUTE_ID, user()).block();
+	}
+
+	private static String user() {
+		return "user-" + ThreadLocalRandom.current().nextInt(USERS);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+				.include(RateLimiterLatencyBenchmark.class.getSimpleName())
+				.build()).run();
+	}
+}
@@ -0,0 +1,91 @@
+package com.gholap.gatewayserver.config;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class RefreshingJwkSourceTest {
+
+	private final AtomicBoolean keycloakUp = new AtomicBoolean();
+	private final AtomicInteger fetches = new AtomicInteger();
+
+	@Test
+	void keepsRefreshingAfterAFailedStartupLoad() throws JOSEException {
+		RSAKey rsaKey = new RSAKeyGenerator(2048).keyID("k1").generate();
+		RefreshingJwkSource jwkSource = new RefreshingJwkSource(webClient(new JWKSet(rsaKey.toPublicJWK())),
+				"http://keycloak/certs", Duration.ofMillis(50));
+		try {
+			await().untilAsserted(() -> assertThat(fetches).hasValueGreaterThan(1));
+			List<JWK> beforeRecovery = jwkSource.apply(token(rsaKey)).collectList().block();
+
+			keycloakUp.set(true);
+			await().untilAsserted(() -> assertThat(jwkSource.apply(token(rsaKey)).collectList().block())
+					.extracting(JWK::getKeyID).containsExactly("k1"));
+
+			assertThat(beforeRecovery).isEmpty();
+		} finally {
+			jwkSource.destroy();
+		}
+	}
+
+	@Test
+	void keepsLastGoodKeySetWhenARefreshFails() throws JOSEException {
+		RSAKey rsaKey = new RSAKeyGenerator(2048).keyID("k1").generate();
+		keycloakUp.set(true);
+		RefreshingJwkSource jwkSource = new RefreshingJwkSource(webClient(new JWKSet(rsaKey.toPublicJWK())),
+				"http://keycloak/certs", Duration.ofMillis(50));
+		try {
+			await().untilAsserted(() -> assertThat(jwkSource.apply(token(rsaKey)).collectList().block()).hasSize(1));
+
+			keycloakUp.set(false);
+			int failedSoFar = fetches.get();
+			await().untilAsserted(() -> assertThat(fetches).hasValueGreaterThan(failedSoFar + 1));
+
+			assertThat(jwkSource.apply(token(rsaKey)).collectList().block())
+					.extracting(JWK::getKeyID).containsExactly("k1");
+		} finally {
+			jwkSource.destroy();
+		}
+	}
+
+	private WebClient webClient(JWKSet jwkSet) {
+		return WebClient.builder()
+				.exchangeFunction(request -> {
+					fetches.incrementAndGet();
+					if (!keycloakUp.get()) {
+						return Mono.just(ClientResponse.create(HttpStatus.SERVICE_UNAVAILABLE).build());
+					}
+					return Mono.just(ClientResponse.create(HttpStatus.OK)
+							.header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+							.body(jwkSet.toString())
+							.build());
+				})
+				.build();
+	}
+
+	private static SignedJWT token(RSAKey rsaKey) {
+		return new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(rsaKey.getKeyID()).build(),
+				new JWTClaimsSet.Builder().subject("test").build());
+	}
+}
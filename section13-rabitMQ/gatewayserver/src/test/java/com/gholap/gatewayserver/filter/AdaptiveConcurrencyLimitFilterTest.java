@@ -0,0 +1,95 @@
+package com.gholap.gatewayserver.filter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimitFilterTest {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final AdaptiveConcurrencyLimitFilter filter =
+			new AdaptiveConcurrencyLimitFilter(meterRegistry, 20, 4, 200, 1.5, 0.2);
+
+	@Test
+	void upstreamServerErrorBacksTheLimitOff() {
+		run(upstream(HttpStatus.INTERNAL_SERVER_ERROR));
+
+		assertThat(limit()).isEqualTo(18.0);
+	}
+
+	@Test
+	void responsesProducedAtTheEdgeLeaveTheLimitAlone() {
+		for (int i = 0; i < 10; i++) {
+			run(local(HttpStatus.SERVICE_UNAVAILABLE));
+			run(local(HttpStatus.OK));
+			run(upstream(HttpStatus.TOO_MANY_REQUESTS));
+		}
+
+		assertThat(limit()).isEqualTo(20.0);
+	}
+
+	@Test
+	void circuitBreakerTimeoutCountsAsFailure() {
+		run(exchange -> {
+			exchange.getAttributes().put(ServerWebExchangeUtils.CIRCUITBREAKER_EXECUTION_EXCEPTION_ATTR,
+					new TimeoutException());
+			exchange.getResponse().setStatusCode(HttpStatus.OK);
+			return Mono.empty();
+		});
+
+		assertThat(limit()).isEqualTo(18.0);
+	}
+
+	@Test
+	void rejectsOverTheLimitWithoutCallingUpstream() {
+		AdaptiveConcurrencyLimitFilter singleSlot = new AdaptiveConcurrencyLimitFilter(meterRegistry, 1, 1, 1, 1.5, 0.2);
+		Disposable inFlight = singleSlot.filter(exchange(), chain -> Mono.never()).subscribe();
+
+		MockServerWebExchange rejected = exchange();
+		singleSlot.filter(rejected, chain -> Mono.error(new AssertionError("must not be called"))).block();
+
+		assertThat(rejected.getResponse().getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+		inFlight.dispose();
+	}
+
+	private void run(GatewayFilterChain chain) {
+		filter.filter(exchange(), chain).block();
+	}
+
+	private static GatewayFilterChain upstream(HttpStatus status) {
+		return exchange -> {
+			exchange.getAttributes().put(LatencyMetricsFilter.UPSTREAM_NANOS_ATTR, 1_000_000L);
+			exchange.getResponse().setStatusCode(status);
+			return Mono.empty();
+		};
+	}
+
+	private static GatewayFilterChain local(HttpStatus status) {
+		return exchange -> {
+			exchange.getResponse().setStatusCode(status);
+			return Mono.empty();
+		};
+	}
+
+	private static MockServerWebExchange exchange() {
+		MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/fetch"));
+		exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR,
+				Route.async().id("loans").uri("lb://LOANS").predicate(ex -> true).build());
+		return exchange;
+	}
+
+	private double limit() {
+		return meterRegistry.get("gateway.concurrency.limit").tag("route", "loans").gauge().value();
+	}
+}
@@ -0,0 +1,90 @@
+package com.gholap.gatewayserver.filter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.http.server.reactive.MockServerHttpResponse;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EdgeCacheGatewayFilterFactoryTest {
+
+	private final EdgeCacheGatewayFilterFactory factory =
+			new EdgeCacheGatewayFilterFactory(DataSize.ofMegabytes(1), new SimpleMeterRegistry());
+	private final AtomicInteger upstreamCalls = new AtomicInteger();
+
+	@Test
+	void runsBeforeTheResponseIsWritten() {
+		GatewayFilter filter = factory.apply(new EdgeCacheGatewayFilterFactory.Config());
+
+		assertThat(filter).isInstanceOf(Ordered.class);
+		assertThat(((Ordered) filter).getOrder()).isLessThan(NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER);
+	}
+
+	@Test
+	void servesRepeatedGetFromCache() {
+		GatewayFilter filter = factory.apply(new EdgeCacheGatewayFilterFactory.Config().setTtl(Duration.ofMinutes(1)));
+
+		MockServerHttpResponse first = get(filter, "/api/contact-info", "hello", " world");
+		MockServerHttpResponse second = get(filter, "/api/contact-info", "hello", " world");
+
+		assertThat(upstreamCalls).hasValue(1);
+		assertThat(first.getBodyAsString().block()).isEqualTo("hello world");
+		assertThat(second.getBodyAsString().block()).isEqualTo("hello world");
+		assertThat(second.getHeaders().getETag()).isEqualTo(first.getHeaders().getETag()).isNotNull();
+	}
+
+	@Test
+	void streamsChunkedBodyOverTheLimitWithoutCachingIt() {
+		GatewayFilter filter = factory.apply(new EdgeCacheGatewayFilterFactory.Config().setTtl(Duration.ofMinutes(1))
+				.setMaxBytes(DataSize.ofBytes(8)));
+
+		MockServerHttpResponse first = get(filter, "/api/fetch", "hello", " chunked", " world");
+		get(filter, "/api/fetch", "hello", " chunked", " world");
+
+		assertThat(upstreamCalls).hasValue(2);
+		assertThat(first.getBodyAsString().block()).isEqualTo("hello chunked world");
+	}
+
+	@Test
+	void skipsPathsOutsideTheConfiguredOnes() {
+		GatewayFilter filter = factory.apply(new EdgeCacheGatewayFilterFactory.Config()
+				.setPaths(List.of("/api/contact-info")));
+
+		get(filter, "/api/fetch", "hello");
+		get(filter, "/api/fetch", "hello");
+
+		assertThat(upstreamCalls).hasValue(2);
+	}
+
+	private MockServerHttpResponse get(GatewayFilter filter, String path, String... chunks) {
+		MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get(path));
+		GatewayFilterChain upstream = chained -> {
+			upstreamCalls.incrementAndGet();
+			chained.getAttributes().put(LatencyMetricsFilter.UPSTREAM_NANOS_ATTR, System.nanoTime());
+			chained.getResponse().setStatusCode(HttpStatus.OK);
+			return chained.getResponse().writeWith(Flux.fromArray(chunks).map(EdgeCacheGatewayFilterFactoryTest::buffer));
+		};
+		filter.filter(exchange, upstream).block();
+		return exchange.getResponse();
+	}
+
+	private static DataBuffer buffer(String chunk) {
+		return DefaultDataBufferFactory.sharedInstance.wrap(chunk.getBytes(StandardCharsets.UTF_8));
+	}
+}
@@ -0,0 +1,52 @@
+package com.gholap.gatewayserver.filter;
+
+import com.gholap.gatewayserver.loadbalancer.PeakEwmaLoadBalancer;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HashRoutingGatewayFilterFactoryTest {
+
+	@Test
+	void dropsClientRoutingKeyWhenDisabled() {
+		ServerWebExchange forwarded = filter(false, "/api/fetch?mobileNumber=4354437687");
+
+		assertThat(forwarded.getRequest().getHeaders()).doesNotContainKey(HashRoutingGatewayFilterFactory.ROUTING_KEY_HEADER);
+		assertThat(forwarded.getAttributes()).doesNotContainKey(PeakEwmaLoadBalancer.HASH_KEY_ATTRIBUTE);
+	}
+
+	@Test
+	void setsTheKeyFromTheQueryWhenEnabled() {
+		ServerWebExchange forwarded = filter(true, "/api/fetch?mobileNumber=4354437687");
+
+		assertThat(forwarded.getRequest().getHeaders()).doesNotContainKey(HashRoutingGatewayFilterFactory.ROUTING_KEY_HEADER);
+		assertThat(forwarded.getAttributes()).containsEntry(PeakEwmaLoadBalancer.HASH_KEY_ATTRIBUTE, "4354437687");
+	}
+
+	@Test
+	void ignoresPathsOutsideTheConfiguredOnes() {
+		ServerWebExchange forwarded = filter(true, "/api/contact-info?mobileNumber=4354437687");
+
+		assertThat(forwarded.getAttributes()).doesNotContainKey(PeakEwmaLoadBalancer.HASH_KEY_ATTRIBUTE);
+	}
+
+	private static ServerWebExchange filter(boolean enabled, String uri) {
+		GatewayFilter filter = new HashRoutingGatewayFilterFactory(enabled)
+				.apply(new HashRoutingGatewayFilterFactory.Config());
+		MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get(uri)
+				.header(HashRoutingGatewayFilterFactory.ROUTING_KEY_HEADER, "pinned"));
+		AtomicReference<ServerWebExchange> forwarded = new AtomicReference<>();
+		filter.filter(exchange, chained -> {
+			forwarded.set(chained);
+			return Mono.empty();
+		}).block();
+		return forwarded.get();
+	}
+}
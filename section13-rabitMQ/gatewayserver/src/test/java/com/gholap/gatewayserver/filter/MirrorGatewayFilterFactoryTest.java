@@ -0,0 +1,131 @@
+package com.gholap.gatewayserver.filter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.loadbalancer.reactive.ReactorLoadBalancerExchangeFilterFunction;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MirrorGatewayFilterFactoryTest {
+
+	private static final String CORRELATION_ID = "4a8f1c62-1f3b-4a52-9a57-0d2f6b1e9c3d";
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final AtomicReference<ClientRequest> shadowRequest = new AtomicReference<>();
+
+	@Test
+	void runsBeforeTheResponseIsWritten() {
+		GatewayFilter filter = factory("hello world").apply(config());
+
+		assertThat(filter).isInstanceOf(Ordered.class);
+		assertThat(((Ordered) filter).getOrder()).isLessThan(NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER);
+	}
+
+	@Test
+	void matchesIdenticalBodies() {
+		GatewayFilter filter = factory("hello world").apply(config());
+
+		MockServerWebExchange exchange = get(filter);
+
+		await().atMost(Duration.ofSeconds(2)).until(() -> diffCount("match") == 1);
+		assertThat(exchange.getResponse().getBodyAsString().block()).isEqualTo("hello world");
+		assertThat(meterRegistry.get("gateway.mirror.latency").tag("target", "primary").timer().count()).isEqualTo(1);
+	}
+
+	@Test
+	void detectsBodyMismatch() {
+		GatewayFilter filter = factory("hello shadow").apply(config());
+
+		get(filter);
+
+		await().atMost(Duration.ofSeconds(2)).until(() -> diffCount("body_mismatch") == 1);
+		assertThat(diffCount("match")).isZero();
+	}
+
+	@Test
+	void shadowCallGetsItsOwnCorrelationId() {
+		GatewayFilter filter = factory("hello world").apply(config());
+
+		get(filter);
+
+		await().atMost(Duration.ofSeconds(2)).until(() -> shadowRequest.get() != null);
+		HttpHeaders headers = shadowRequest.get().headers();
+		assertThat(headers.getFirst(MirrorGatewayFilterFactory.MIRRORED_FROM_HEADER)).isEqualTo(CORRELATION_ID);
+		assertThat(headers.getFirst(FilterUtility.CORRELATION_ID)).isNotNull().isNotEqualTo(CORRELATION_ID);
+		assertThat(headers).doesNotContainKey(HashRoutingGatewayFilterFactory.ROUTING_KEY_HEADER);
+	}
+
+	@Test
+	void primaryLatencyCoversTheWholeBody() {
+		GatewayFilter filter = factory("hello world").apply(config());
+
+		get(filter, Duration.ofMillis(100));
+
+		await().atMost(Duration.ofSeconds(2)).until(() -> diffCount("match") == 1);
+		assertThat(meterRegistry.get("gateway.mirror.latency").tag("target", "primary").timer()
+				.totalTime(TimeUnit.MILLISECONDS)).isGreaterThanOrEqualTo(100);
+	}
+
+	private MirrorGatewayFilterFactory factory(String shadowBody) {
+		ExchangeFunction shadow = request -> {
+			shadowRequest.set(request);
+			return Mono.just(ClientResponse.create(HttpStatus.OK).body(shadowBody).build());
+		};
+		ReactorLoadBalancerExchangeFilterFunction loadBalancerFunction = mock(ReactorLoadBalancerExchangeFilterFunction.class);
+		when(loadBalancerFunction.apply(any())).thenAnswer(invocation -> invocation.getArgument(0));
+		return new MirrorGatewayFilterFactory(WebClient.builder().exchangeFunction(shadow), loadBalancerFunction,
+				meterRegistry);
+	}
+
+	private static MirrorGatewayFilterFactory.Config config() {
+		return new MirrorGatewayFilterFactory.Config().setShadowServiceId("ACCOUNTS-SHADOW").setSampleRate(1);
+	}
+
+	private MockServerWebExchange get(GatewayFilter filter) {
+		return get(filter, Duration.ZERO);
+	}
+
+	/** the primary sends its headers right away and the second half of the body after bodyDelay */
+	private MockServerWebExchange get(GatewayFilter filter, Duration bodyDelay) {
+		MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/fetch")
+				.header(FilterUtility.CORRELATION_ID, CORRELATION_ID)
+				.header(HashRoutingGatewayFilterFactory.ROUTING_KEY_HEADER, "4354437687"));
+		GatewayFilterChain upstream = chained -> {
+			chained.getResponse().setStatusCode(HttpStatus.OK);
+			return chained.getResponse().writeWith(Flux.concat(Mono.just("hello"), Mono.just(" world").delayElement(bodyDelay))
+					.map(chunk -> DefaultDataBufferFactory.sharedInstance.wrap(chunk.getBytes(StandardCharsets.UTF_8))));
+		};
+		filter.filter(exchange, upstream).block();
+		return exchange;
+	}
+
+	private double diffCount(String result) {
+		return meterRegistry.find("gateway.mirror.diff").tag("result", result).counters().stream()
+				.mapToDouble(counter -> counter.count())
+				.sum();
+	}
+}
@@ -0,0 +1,72 @@
+package com.gholap.gatewayserver.filter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RetryBudgetGatewayFilterFactoryTest {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final RetryBudgetGatewayFilterFactory factory = new RetryBudgetGatewayFilterFactory(meterRegistry);
+	private final AtomicInteger upstreamCalls = new AtomicInteger();
+
+	@Test
+	void retriesServerErrorsUntilSuccess() {
+		GatewayFilter filter = factory.apply(config());
+
+		MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/fetch"));
+		filter.filter(exchange, failing(2)).block();
+
+		assertThat(upstreamCalls).hasValue(3);
+		assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(meterRegistry.get("gateway.retry.amplification").summary().mean()).isEqualTo(3.0);
+	}
+
+	@Test
+	void stopsRetryingOnceTheBudgetIsSpent() {
+		GatewayFilter filter = factory.apply(config().setMaxBalance(1).setMinRetriesPerSecond(0).setRetryRatio(0));
+
+		filter.filter(MockServerWebExchange.from(MockServerHttpRequest.get("/api/fetch")), failing(Integer.MAX_VALUE)).block();
+		assertThat(upstreamCalls).hasValue(2);
+
+		upstreamCalls.set(0);
+		MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/fetch"));
+		filter.filter(exchange, failing(Integer.MAX_VALUE)).block();
+
+		assertThat(upstreamCalls).hasValue(1);
+		assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
+		assertThat(meterRegistry.get("gateway.retry.budget.exhausted").counter().count()).isEqualTo(2.0);
+	}
+
+	@Test
+	void neverRetriesNonIdempotentRequests() {
+		GatewayFilter filter = factory.apply(config());
+
+		filter.filter(MockServerWebExchange.from(MockServerHttpRequest.post("/api/create")), failing(1)).block();
+
+		assertThat(upstreamCalls).hasValue(1);
+	}
+
+	private static RetryBudgetGatewayFilterFactory.Config config() {
+		return new RetryBudgetGatewayFilterFactory.Config()
+				.setFirstBackoff(Duration.ofMillis(1)).setMaxBackoff(Duration.ofMillis(1));
+	}
+
+	private GatewayFilterChain failing(int failures) {
+		return exchange -> {
+			int call = upstreamCalls.incrementAndGet();
+			exchange.getResponse().setStatusCode(call <= failures ? HttpStatus.INTERNAL_SERVER_ERROR : HttpStatus.OK);
+			return Mono.empty();
+		};
+	}
+}
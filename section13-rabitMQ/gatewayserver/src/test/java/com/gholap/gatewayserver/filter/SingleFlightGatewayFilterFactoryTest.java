@@ -0,0 +1,115 @@
+package com.gholap.gatewayserver.filter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class SingleFlightGatewayFilterFactoryTest {
+
+	private final SingleFlightGatewayFilterFactory factory = new SingleFlightGatewayFilterFactory(new SimpleMeterRegistry());
+	private final AtomicInteger upstreamCalls = new AtomicInteger();
+
+	@Test
+	void runsBeforeTheResponseIsWritten() {
+		GatewayFilter filter = factory.apply(new SingleFlightGatewayFilterFactory.Config());
+
+		assertThat(filter).isInstanceOf(Ordered.class);
+		assertThat(((Ordered) filter).getOrder()).isLessThan(NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER);
+	}
+
+	@Test
+	void followerGetsTheLeadersResponse() {
+		GatewayFilter filter = factory.apply(new SingleFlightGatewayFilterFactory.Config().setPaths(List.of("/api/fetch")));
+		Sinks.Empty<Void> upstreamDone = Sinks.empty();
+		GatewayFilterChain upstream = upstream(HttpStatus.OK, upstreamDone);
+
+		MockServerWebExchange leader = exchange();
+		MockServerWebExchange follower = exchange();
+		CompletableFuture<Void> leaderDone = filter.filter(leader, upstream).toFuture();
+		CompletableFuture<Void> followerDone = filter.filter(follower, upstream).toFuture();
+		upstreamDone.tryEmitEmpty();
+		leaderDone.join();
+		followerDone.join();
+
+		assertThat(upstreamCalls).hasValue(1);
+		assertThat(follower.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(follower.getResponse().getBodyAsString().block()).isEqualTo("hello world");
+		assertThat(leader.getResponse().getBodyAsString().block()).isEqualTo("hello world");
+	}
+
+	@Test
+	void followerIsForwardedWhenTheLeaderFails() {
+		GatewayFilter filter = factory.apply(new SingleFlightGatewayFilterFactory.Config());
+		Sinks.Empty<Void> upstreamDone = Sinks.empty();
+		GatewayFilterChain upstream = upstream(HttpStatus.SERVICE_UNAVAILABLE, upstreamDone);
+
+		CompletableFuture<Void> leaderDone = filter.filter(exchange(), upstream).toFuture();
+		CompletableFuture<Void> followerDone = filter.filter(exchange(), upstream).toFuture();
+		upstreamDone.tryEmitEmpty();
+		leaderDone.join();
+		followerDone.join();
+
+		assertThat(upstreamCalls).hasValue(2);
+	}
+
+	@Test
+	void followerIsForwardedAfterMaxWait() {
+		GatewayFilter filter = factory.apply(new SingleFlightGatewayFilterFactory.Config()
+				.setMaxWait(Duration.ofMillis(50)));
+		Sinks.Empty<Void> upstreamDone = Sinks.empty();
+		GatewayFilterChain upstream = upstream(HttpStatus.OK, upstreamDone);
+
+		CompletableFuture<Void> leaderDone = filter.filter(exchange(), upstream).toFuture();
+		MockServerWebExchange follower = exchange();
+		CompletableFuture<Void> followerDone = filter.filter(follower, upstream).toFuture();
+		// the follower gives up on the leader and makes its own call
+		await().atMost(Duration.ofSeconds(2)).until(() -> upstreamCalls.get() == 2);
+		upstreamDone.tryEmitEmpty();
+		leaderDone.join();
+		followerDone.join();
+
+		assertThat(upstreamCalls).hasValue(2);
+		assertThat(follower.getResponse().getBodyAsString().block()).isEqualTo("hello world");
+	}
+
+	/** answers every call once upstreamDone completes, so concurrent requests overlap */
+	private GatewayFilterChain upstream(HttpStatus status, Sinks.Empty<Void> upstreamDone) {
+		return chained -> {
+			upstreamCalls.incrementAndGet();
+			return upstreamDone.asMono().then(Flux.just("hello", " world").map(SingleFlightGatewayFilterFactoryTest::buffer)
+					.collectList()
+					.flatMap(chunks -> {
+						chained.getAttributes().put(LatencyMetricsFilter.UPSTREAM_NANOS_ATTR, System.nanoTime());
+						chained.getResponse().setStatusCode(status);
+						return chained.getResponse().writeWith(Flux.fromIterable(chunks));
+					}));
+		};
+	}
+
+	private static MockServerWebExchange exchange() {
+		return MockServerWebExchange.from(MockServerHttpRequest.get("/api/fetch").queryParam("mobileNumber", "4354437687"));
+	}
+
+	private static DataBuffer buffer(String chunk) {
+		return DefaultDataBufferFactory.sharedInstance.wrap(chunk.getBytes(StandardCharsets.UTF_8));
+	}
+}
@@ -0,0 +1,83 @@
+package com.gholap.gatewayserver.loadbalancer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CanaryManagerTest {
+
+	private static final String SERVICE_ID = "loans";
+	private static final long MILLIS = 1_000_000;
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	// error rate tolerance of 1 means errors alone never roll back, so only the p99 decides
+	private final CanaryManager canaryManager = new CanaryManager(meterRegistry, 0.2, 1.0, 100, Duration.ofHours(1));
+	private final ServiceInstance baseline = instance("baseline", "v1");
+	private final ServiceInstance canary = instance("canary", "v2");
+
+	@AfterEach
+	void tearDown() {
+		canaryManager.destroy();
+	}
+
+	@Test
+	void keepsCanaryThatPerformsLikeTheBaseline() {
+		canaryManager.setWeight(SERVICE_ID, "v2", 10);
+
+		record(baseline, 100, 10 * MILLIS, 0, 0);
+		record(canary, 100, 10 * MILLIS, 0, 0);
+		canaryManager.evaluate();
+
+		assertThat(state()).containsEntry("weight", 10).containsEntry("rolledBack", false);
+	}
+
+	@Test
+	void rollsBackCanaryWhoseFailedCallsAreSlow() {
+		canaryManager.setWeight(SERVICE_ID, "v2", 10);
+
+		record(baseline, 100, 10 * MILLIS, 0, 0);
+		// 5% of the canary's calls time out after 2s; its successful calls are as fast as the baseline
+		record(canary, 95, 10 * MILLIS, 5, 2_000 * MILLIS);
+		canaryManager.evaluate();
+
+		assertThat(state()).containsEntry("weight", 0).containsEntry("rolledBack", true);
+		assertThat(meterRegistry.get("loadbalancer.canary.rollback").counter().count()).isEqualTo(1);
+	}
+
+	@Test
+	void waitsForEnoughSamples() {
+		canaryManager.setWeight(SERVICE_ID, "v2", 10);
+
+		record(baseline, 100, 10 * MILLIS, 0, 0);
+		record(canary, 10, 10 * MILLIS, 10, 2_000 * MILLIS);
+		canaryManager.evaluate();
+
+		assertThat(state()).containsEntry("weight", 10);
+	}
+
+	private void record(ServiceInstance instance, int successes, long successNanos, int failures, long failureNanos) {
+		for (int i = 0; i < successes; i++) {
+			canaryManager.record(SERVICE_ID, instance, successNanos, false);
+		}
+		for (int i = 0; i < failures; i++) {
+			canaryManager.record(SERVICE_ID, instance, failureNanos, true);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private Map<String, Object> state() {
+		return (Map<String, Object>) canaryManager.describe().get(SERVICE_ID);
+	}
+
+	private static ServiceInstance instance(String host, String version) {
+		return new DefaultServiceInstance(host, SERVICE_ID, host, 8090, false,
+				Map.of(CanaryManager.VERSION_METADATA_KEY, version));
+	}
+}
@@ -0,0 +1,199 @@
+package com.gholap.gatewayserver.loadbalancer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestData;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.ServiceInstanceListSuppliers;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.util.LinkedMultiValueMap;
+import reactor.core.publisher.Flux;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PeakEwmaLoadBalancerTest {
+
+	private static final String SERVICE_ID = "loans";
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final CanaryManager canaryManager = new CanaryManager(meterRegistry, 0.2, 0.02, 50, Duration.ofHours(1));
+
+	@AfterEach
+	void tearDown() {
+		canaryManager.destroy();
+	}
+
+	@Test
+	void cancelledCallIsReleasedExactlyOnce() {
+		ServiceInstance instance = instance("a");
+		PeakEwmaLoadBalancer loadBalancer = loadBalancer(instance);
+		Request<Object> request = request(null);
+
+		Response<ServiceInstance> response = loadBalancer.choose(request).block();
+		loadBalancer.onStartRequest(request, response);
+		assertThat(loadBalancer.outstanding(instance)).isEqualTo(1);
+
+		((PeakEwmaLoadBalancer.TrackedResponse) response).cancel();
+		loadBalancer.onComplete(new CompletionContext<>(CompletionContext.Status.SUCCESS, request, response));
+
+		assertThat(loadBalancer.outstanding(instance)).isZero();
+	}
+
+	@Test
+	void avoidsTheSlowerInstance() throws InterruptedException {
+		ServiceInstance slow = instance("slow");
+		ServiceInstance fast = instance("fast");
+		PeakEwmaLoadBalancer loadBalancer = loadBalancer(slow, fast);
+		complete(loadBalancer, slow, 30);
+		complete(loadBalancer, fast, 0);
+
+		for (int i = 0; i < 20; i++) {
+			assertThat(loadBalancer.choose(request(null)).block().getServer()).isEqualTo(fast);
+		}
+	}
+
+	@Test
+	void cancelCountsAsFailedSample() {
+		ServiceInstance cancelled = instance("cancelled");
+		ServiceInstance healthy = instance("healthy");
+		PeakEwmaLoadBalancer loadBalancer = loadBalancer(cancelled, healthy);
+		Request<Object> request = request(null);
+		Response<ServiceInstance> response = loadBalancer.choose(request).block();
+		while (response.getServer() != cancelled) {
+			response = loadBalancer.choose(request).block();
+		}
+
+		loadBalancer.onStartRequest(request, response);
+		((PeakEwmaLoadBalancer.TrackedResponse) response).cancel();
+
+		for (int i = 0; i < 20; i++) {
+			assertThat(loadBalancer.choose(request(null)).block().getServer()).isEqualTo(healthy);
+		}
+	}
+
+	@Test
+	void instanceThatLeavesWithRequestsInFlightIsReleasedBeforeItIsForgotten() {
+		ServiceInstance leaving = instance("leaving");
+		ServiceInstance staying = instance("staying");
+		AtomicReference<List<ServiceInstance>> instances = new AtomicReference<>(List.of(leaving, staying));
+		PeakEwmaLoadBalancer loadBalancer = loadBalancer(instances);
+		Request<Object> request = request(null);
+		Response<ServiceInstance> response = loadBalancer.choose(request).block();
+		while (response.getServer() != leaving) {
+			response = loadBalancer.choose(request).block();
+		}
+		loadBalancer.onStartRequest(request, response);
+
+		instances.set(List.of(staying));
+		loadBalancer.choose(request(null)).block();
+		loadBalancer.onComplete(new CompletionContext<>(CompletionContext.Status.SUCCESS, request, response));
+		loadBalancer.choose(request(null)).block();
+		instances.set(List.of(leaving, staying));
+
+		assertThat(loadBalancer.outstanding(leaving)).isZero();
+		assertThat(meterRegistry.find("loadbalancer.instance.score").tag("instance", "leaving:8090").gauges()).isEmpty();
+	}
+
+	@Test
+	void sameRoutingKeyKeepsItsInstanceWhenAnotherOneLeaves() {
+		List<ServiceInstance> instances = List.of(instance("a"), instance("b"), instance("c"));
+		ServiceInstance chosen = loadBalancer(instances.toArray(ServiceInstance[]::new))
+				.choose(request("9876543210")).block().getServer();
+		ServiceInstance leaving = instances.stream().filter(instance -> instance != chosen).findFirst().orElseThrow();
+
+		ServiceInstance afterLeave = loadBalancer(instances.stream().filter(instance -> instance != leaving)
+				.toArray(ServiceInstance[]::new)).choose(request("9876543210")).block().getServer();
+
+		assertThat(afterLeave).isEqualTo(chosen);
+	}
+
+	@Test
+	void routesToTheCanaryVersionByWeight() {
+		ServiceInstance baseline = instance("baseline", "v1");
+		ServiceInstance canary = instance("canary", "v2");
+		PeakEwmaLoadBalancer loadBalancer = loadBalancer(baseline, canary);
+
+		canaryManager.setWeight(SERVICE_ID, "v2", 100);
+		for (int i = 0; i < 20; i++) {
+			assertThat(loadBalancer.choose(request(null)).block().getServer()).isEqualTo(canary);
+		}
+		canaryManager.setWeight(SERVICE_ID, "v2", 0);
+		for (int i = 0; i < 20; i++) {
+			assertThat(loadBalancer.choose(request(null)).block().getServer()).isEqualTo(baseline);
+		}
+	}
+
+	private PeakEwmaLoadBalancer loadBalancer(ServiceInstance... instances) {
+		return new PeakEwmaLoadBalancer(ServiceInstanceListSuppliers.toProvider(SERVICE_ID, instances),
+				SERVICE_ID, meterRegistry, canaryManager);
+	}
+
+	@SuppressWarnings("unchecked")
+	private PeakEwmaLoadBalancer loadBalancer(AtomicReference<List<ServiceInstance>> instances) {
+		ServiceInstanceListSupplier supplier = new ServiceInstanceListSupplier() {
+			@Override
+			public String getServiceId() {
+				return SERVICE_ID;
+			}
+
+			@Override
+			public Flux<List<ServiceInstance>> get() {
+				return Flux.defer(() -> Flux.just(instances.get()));
+			}
+		};
+		ObjectProvider<ServiceInstanceListSupplier> provider = mock(ObjectProvider.class);
+		when(provider.getIfAvailable(any())).thenReturn(supplier);
+		return new PeakEwmaLoadBalancer(provider, SERVICE_ID, meterRegistry, canaryManager);
+	}
+
+	private static void complete(PeakEwmaLoadBalancer loadBalancer, ServiceInstance instance, long millis)
+			throws InterruptedException {
+		Request<Object> request = request(null);
+		Response<ServiceInstance> response = new DefaultResponse(instance);
+		loadBalancer.onStartRequest(request, response);
+		Thread.sleep(millis);
+		loadBalancer.onComplete(new CompletionContext<>(CompletionContext.Status.SUCCESS, request, response));
+	}
+
+	private static Request<Object> request(String routingKey) {
+		Map<String, Object> attributes = new HashMap<>();
+		if (routingKey != null) {
+			attributes.put(PeakEwmaLoadBalancer.HASH_KEY_ATTRIBUTE, routingKey);
+		}
+		return new DefaultRequest<>(new RequestDataContext(new RequestData(HttpMethod.GET,
+				URI.create("http://loans/api/fetch"), new HttpHeaders(), new LinkedMultiValueMap<>(), attributes)));
+	}
+
+	private static ServiceInstance instance(String host) {
+		return instance(host, null);
+	}
+
+	private static ServiceInstance instance(String host, String version) {
+		Map<String, String> metadata = new HashMap<>();
+		if (version != null) {
+			metadata.put(CanaryManager.VERSION_METADATA_KEY, version);
+		}
+		return new DefaultServiceInstance(host, SERVICE_ID, host, 8090, false, metadata);
+	}
+}
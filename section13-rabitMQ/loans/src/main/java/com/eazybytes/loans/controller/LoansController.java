@@ -13,7 +13,9 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -26,6 +28,8 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 /**
  * @author Eazy Bytes
  */
@@ -113,6 +117,36 @@ public class LoansController {
         return ResponseEntity.status(HttpStatus.OK).body(loansDto);
     }
 
+    @Operation(
+            summary = "Fetch Loan Details in Batch REST API",
+            description = "REST API to fetch loan details for a list of mobile numbers"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "HTTP Status OK"
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "HTTP Status Internal Server Error",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDto.class)
+                    )
+            )
+    }
+    )
+    @PostMapping("/fetch/batch")
+    public ResponseEntity<List<LoansDto>> fetchLoanDetailsBatch(@RequestHeader("eazybank-correlation-id") String correlationId,
+                                                     @RequestBody
+                                                     @NotEmpty(message = "Mobile numbers can not be empty")
+                                                     @Size(max = 500, message = "At most 500 mobile numbers can be fetched at once")
+                                                     List<@Pattern(regexp="(^$|[0-9]{10})",message = "Mobile number must be 10 digits") String> mobileNumbers) {
+        logger.debug("fetchLoanDetailsBatch method start for {} mobile numbers", mobileNumbers.size());
+        List<LoansDto> loansDtos = iLoansService.fetchLoans(mobileNumbers);
+        logger.debug("fetchLoanDetailsBatch method end");
+        return ResponseEntity.status(HttpStatus.OK).body(loansDtos);
+    }
+
     @Operation(
             summary = "Update Loan Details REST API",
             description = "REST API to update loan details based on a loan number"
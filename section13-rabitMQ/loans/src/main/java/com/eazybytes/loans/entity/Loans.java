@@ -2,9 +2,16 @@ package com.eazybytes.loans.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@NaturalIdCache
 @Getter @Setter @ToString @AllArgsConstructor @NoArgsConstructor
 public class Loans extends BaseEntity {
 
@@ -13,6 +20,7 @@ public class Loans extends BaseEntity {
 	@GenericGenerator(name = "native",strategy = "native")
 	private Long loanId;
 
+	@NaturalId(mutable = true)
 	private String mobileNumber;
 
 	private String loanNumber;
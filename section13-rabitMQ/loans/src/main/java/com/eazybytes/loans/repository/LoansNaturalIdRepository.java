@@ -0,0 +1,14 @@
+package com.eazybytes.loans.repository;
+
+import com.eazybytes.loans.entity.Loans;
+
+import java.util.Optional;
+
+public interface LoansNaturalIdRepository {
+
+    /**
+     * Loads the loan through its mobileNumber natural id, so repeated lookups are answered
+     * from the natural-id and second-level caches instead of running a query.
+     */
+    Optional<Loans> findByMobileNumber(String mobileNumber);
+}
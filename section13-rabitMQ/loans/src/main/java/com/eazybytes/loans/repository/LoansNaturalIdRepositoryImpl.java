@@ -0,0 +1,25 @@
+package com.eazybytes.loans.repository;
+
+import com.eazybytes.loans.entity.Loans;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+public class LoansNaturalIdRepositoryImpl implements LoansNaturalIdRepository {
+
+    private final EntityManager entityManager;
+
+    public LoansNaturalIdRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Loans> findByMobileNumber(String mobileNumber) {
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(Loans.class)
+                .loadOptional(mobileNumber);
+    }
+}
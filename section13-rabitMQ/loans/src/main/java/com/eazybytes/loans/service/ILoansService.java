@@ -2,6 +2,8 @@ package com.eazybytes.loans.service;
 
 import com.eazybytes.loans.dto.LoansDto;
 
+import java.util.List;
+
 public interface ILoansService {
 
     /**
@@ -17,6 +19,13 @@ public interface ILoansService {
      */
     LoansDto fetchLoan(String mobileNumber);
 
+    /**
+     *
+     * @param mobileNumbers - Input mobile Numbers
+     *  @return Loan Details of every given mobileNumber that has a loan, unknown numbers are skipped
+     */
+    List<LoansDto> fetchLoans(List<String> mobileNumbers);
+
     /**
      *
      * @param loansDto - LoansDto Object
@@ -11,6 +11,7 @@ import com.eazybytes.loans.service.ILoansService;
 import lombok.AllArgsConstructor;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.Random;
 
@@ -61,6 +62,18 @@ public class LoansServiceImpl implements ILoansService {
         return LoansMapper.mapToLoansDto(loans, new LoansDto());
     }
 
+    /**
+     *
+     * @param mobileNumbers - Input mobile Numbers
+     * @return Loan Details of every given mobileNumber that has a loan
+     */
+    @Override
+    public List<LoansDto> fetchLoans(List<String> mobileNumbers) {
+        return loansRepository.findByMobileNumberIn(mobileNumbers).stream()
+                .map(loans -> LoansMapper.mapToLoansDto(loans, new LoansDto()))
+                .toList();
+    }
+
     /**
      *
      * @param loansDto - LoansDto Object